@@ -0,0 +1,225 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Represents a map file from <code>tools/maps</code> loaded for benchmarking.
+ */
+public class BenchmarkMap {
+    private final String name;
+
+    private final String group;
+
+    private final int rows;
+
+    private final int cols;
+
+    private final boolean water[];
+
+    private final IntList hills = new IntList();
+
+    private final IntList landTiles = new IntList();
+
+    private BenchmarkMap(String name, String group, int rows, int cols) {
+        this.name = name;
+        this.group = group;
+        this.rows = rows;
+        this.cols = cols;
+        water = new boolean[rows * cols];
+    }
+
+    /**
+     * Loads a map file.
+     * 
+     * @param file map file in the game engine format
+     * 
+     * @return loaded map
+     * 
+     * @throws IOException if an I/O error occurs
+     */
+    public static BenchmarkMap load(File file) throws IOException {
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            int rows = 0;
+            int cols = 0;
+            List<String> lines = new ArrayList<String>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("rows ")) {
+                    rows = Integer.parseInt(line.substring(5).trim());
+                } else if (line.startsWith("cols ")) {
+                    cols = Integer.parseInt(line.substring(5).trim());
+                } else if (line.startsWith("m ")) {
+                    lines.add(line.substring(2));
+                }
+            }
+            BenchmarkMap map = new BenchmarkMap(file.getName(),
+                    file.getAbsoluteFile().getParentFile().getName(), rows, cols);
+            for (int row = 0; row < rows; row++) {
+                String mapLine = lines.get(row);
+                for (int col = 0; col < cols; col++) {
+                    char c = mapLine.charAt(col);
+                    int index = row * cols + col;
+                    if (c == '%') {
+                        map.water[index] = true;
+                    } else {
+                        map.landTiles.add(index);
+                        if (c >= '0' && c <= '9' || c >= 'A' && c <= 'J') {
+                            map.hills.add(index);
+                        }
+                    }
+                }
+            }
+            return map;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Loads the largest maps found below the specified directory.
+     * 
+     * @param dir directory to search for <code>.map</code> files
+     * @param count maximum number of maps to load
+     * 
+     * @return loaded maps, largest first
+     * 
+     * @throws IOException if an I/O error occurs
+     */
+    public static List<BenchmarkMap> loadLargest(File dir, int count) throws IOException {
+        List<BenchmarkMap> maps = loadAll(dir);
+        Collections.sort(maps, new Comparator<BenchmarkMap>() {
+            @Override
+            public int compare(BenchmarkMap m1, BenchmarkMap m2) {
+                return m2.rows * m2.cols - m1.rows * m1.cols;
+            }
+        });
+        return maps.subList(0, Math.min(count, maps.size()));
+    }
+
+    /**
+     * Loads all maps found below the specified directory.
+     * 
+     * @param dir directory to search for <code>.map</code> files
+     * 
+     * @return loaded maps
+     * 
+     * @throws IOException if an I/O error occurs
+     */
+    public static List<BenchmarkMap> loadAll(File dir) throws IOException {
+        List<BenchmarkMap> maps = new ArrayList<BenchmarkMap>();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    maps.addAll(loadAll(file));
+                } else if (file.getName().endsWith(".map")) {
+                    maps.add(load(file));
+                }
+            }
+        }
+        return maps;
+    }
+
+    /**
+     * Creates game state with all water of this map already known. The turn has just started and
+     * is long enough for searches not to be stopped by the turn time.
+     * 
+     * @return game state for this map
+     */
+    public Ants createAnts() {
+        Ants ants = new Ants(3000, Integer.MAX_VALUE / 2, rows, cols, 1000, 77, 5, 1);
+        ants.setTurnStartTime(System.currentTimeMillis());
+        for (int index = 0; index < water.length; index++) {
+            if (water[index]) {
+                ants.update(Ilk.WATER, ants.getTile(index));
+            }
+        }
+        return ants;
+    }
+
+    /**
+     * Creates explored tiles with all water of this map known and all other tiles unexplored.
+     * 
+     * @return explored tiles for this map
+     */
+    public TileType[][] createExploredTiles() {
+        TileType[][] exploredTiles = new TileType[rows][cols];
+        for (int index = 0; index < water.length; index++) {
+            if (water[index]) {
+                exploredTiles[index / cols][index % cols] = TileType.WATER;
+            }
+        }
+        return exploredTiles;
+    }
+
+    /**
+     * Returns name of the directory the map file is in.
+     * 
+     * @return name of the directory the map file is in
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * Returns map file name.
+     * 
+     * @return map file name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns map height.
+     * 
+     * @return map height
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns map width.
+     * 
+     * @return map width
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Checks if a location is water.
+     * 
+     * @param index location index
+     * 
+     * @return <code>true</code> if the location is water, <code>false</code> otherwise
+     */
+    public boolean isWater(int index) {
+        return water[index];
+    }
+
+    /**
+     * Returns location indexes of all hills.
+     * 
+     * @return location indexes of all hills
+     */
+    public IntList getHills() {
+        return hills;
+    }
+
+    /**
+     * Returns location indexes of all passable tiles.
+     * 
+     * @return location indexes of all passable tiles
+     */
+    public IntList getLandTiles() {
+        return landTiles;
+    }
+}
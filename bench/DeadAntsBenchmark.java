@@ -0,0 +1,65 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Compares clearing dead ants by scanning the whole map with clearing only the tracked dead ant
+ * locations, on the largest maps in <code>tools/maps</code>.
+ */
+public class DeadAntsBenchmark {
+    private static final int MAPS = 5;
+
+    private static final int DEAD_ANTS_PER_TURN = 20;
+
+    private static final int WARMUP_TURNS = 20000;
+
+    private static final int TURNS = 20000;
+
+    /**
+     * Runs the benchmark.
+     * 
+     * @param args optional maps directory, <code>tools/maps</code> by default
+     * 
+     * @throws IOException if an I/O error occurs
+     */
+    public static void main(String[] args) throws IOException {
+        File dir = new File(args.length > 0 ? args[0] : "tools/maps");
+        System.out.println("map                          cells   scan ns/turn   list ns/turn");
+        for (BenchmarkMap map : BenchmarkMap.loadLargest(dir, MAPS)) {
+            Ants ants = map.createAnts();
+            run(ants, map, false, WARMUP_TURNS);
+            run(ants, map, true, WARMUP_TURNS);
+            long scan = run(ants, map, false, TURNS);
+            long list = run(ants, map, true, TURNS);
+            System.out.println(String.format("%-28s %5d %14d %14d", map.getName(),
+                    map.getRows() * map.getCols(), scan / TURNS, list / TURNS));
+        }
+    }
+
+    private static long run(Ants ants, BenchmarkMap map, boolean useList, int turns) {
+        Random random = new Random(42);
+        IntList land = map.getLandTiles();
+        long start = System.nanoTime();
+        for (int turn = 0; turn < turns; turn++) {
+            for (int i = 0; i < DEAD_ANTS_PER_TURN; i++) {
+                ants.update(Ilk.DEAD, ants.getTile(land.get(random.nextInt(land.size()))));
+            }
+            if (useList) {
+                ants.clearDeadAnts();
+            } else {
+                scanDeadAnts(ants);
+                ants.getDeadAnts().clear();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void scanDeadAnts(Ants ants) {
+        int cells = ants.getRows() * ants.getCols();
+        for (int index = 0; index < cells; index++) {
+            if (ants.getIlk(index) == Ilk.DEAD) {
+                ants.setIlk(index, Ilk.LAND);
+            }
+        }
+    }
+}
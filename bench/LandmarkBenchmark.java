@@ -0,0 +1,105 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares node expansions and wall time of A* and Jump Point Search with the Manhattan heuristic
+ * and with the landmark heuristic for random queries on the maze maps in <code>tools/maps</code>.
+ * The landmarks are spread over the map like in the bot and completed by the hills. Both
+ * heuristics must lead to paths of the same length.
+ */
+public class LandmarkBenchmark {
+    private static final String[] GROUPS = { "maze", "multi_hill_maze", "cell_maze" };
+
+    private static final int QUERIES_PER_MAP = 100;
+
+    private static final int WARMUP_ROUNDS = 2;
+
+    private static final int LANDMARK_ROWS = 2;
+
+    private static final int LANDMARK_COLS = 4;
+
+    private static final int MAX_HILL_LANDMARKS = 4;
+
+    /**
+     * Runs the benchmark.
+     * 
+     * @param args optional maps directory, <code>tools/maps</code> by default
+     * 
+     * @throws IOException if an I/O error occurs
+     */
+    public static void main(String[] args) throws IOException {
+        File dir = new File(args.length > 0 ? args[0] : "tools/maps");
+        Map<String, long[]> results = new LinkedHashMap<String, long[]>();
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            results.clear();
+            for (String group : GROUPS) {
+                long[] result = new long[10];
+                results.put(group, result);
+                for (BenchmarkMap map : BenchmarkMap.loadAll(new File(dir, group))) {
+                    run(map, result);
+                }
+            }
+        }
+        System.out.println("maps             queries  tables ms   A* expanded  ALT expanded    A* ms   ALT ms"
+                + "  JPS expanded  JPS+ALT expanded   JPS ms  JPS+ALT ms");
+        for (Map.Entry<String, long[]> entry : results.entrySet()) {
+            long[] r = entry.getValue();
+            System.out.println(String.format("%-16s %7d %10d %13d %13d %8d %8d %13d %17d %8d %11d",
+                    entry.getKey(), r[0], r[9] / 1000000, r[1], r[2], r[3] / 1000000, r[4] / 1000000, r[5],
+                    r[6], r[7] / 1000000, r[8] / 1000000));
+        }
+    }
+
+    private static void run(BenchmarkMap map, long[] result) {
+        Ants ants = map.createAnts();
+        TileType[][] exploredTiles = map.createExploredTiles();
+
+        long time = System.nanoTime();
+        IntList hills = map.getHills();
+        Landmarks landmarks = new Landmarks(ants, exploredTiles, LANDMARK_ROWS * LANDMARK_COLS
+                + MAX_HILL_LANDMARKS);
+        landmarks.addGrid(LANDMARK_ROWS, LANDMARK_COLS);
+        for (int i = 0; i < hills.size() && i < MAX_HILL_LANDMARKS; i++) {
+            landmarks.addLandmark(hills.get(i));
+        }
+        result[9] += System.nanoTime() - time;
+
+        AStar aStar = new AStar(ants, exploredTiles);
+        AStar landmarkAStar = new AStar(ants, exploredTiles);
+        landmarkAStar.setLandmarks(landmarks);
+        JumpPointSearch jumpPointSearch = new JumpPointSearch(ants, exploredTiles);
+        JumpPointSearch landmarkJumpPointSearch = new JumpPointSearch(ants, exploredTiles);
+        landmarkJumpPointSearch.setLandmarks(landmarks);
+
+        IntList land = map.getLandTiles();
+        Random random = new Random(42);
+        for (int query = 0; query < QUERIES_PER_MAP; query++) {
+            int start = land.get(random.nextInt(land.size()));
+            int end = land.get(random.nextInt(land.size()));
+            result[0]++;
+            result[3] += search(aStar, start, end);
+            result[4] += search(landmarkAStar, start, end);
+            result[7] += search(jumpPointSearch, start, end);
+            result[8] += search(landmarkJumpPointSearch, start, end);
+            result[1] += aStar.getExpandedCounter();
+            result[2] += landmarkAStar.getExpandedCounter();
+            result[5] += jumpPointSearch.getExpandedCounter();
+            result[6] += landmarkJumpPointSearch.getExpandedCounter();
+            int length = aStar.getPath().size();
+            if (landmarkAStar.getPath().size() != length || jumpPointSearch.getPath().size() != length
+                    || landmarkJumpPointSearch.getPath().size() != length) {
+                throw new IllegalStateException("different path lengths on " + map.getName() + " from "
+                        + start + " to " + end);
+            }
+        }
+    }
+
+    private static long search(IPathFinder pathFinder, int start, int end) {
+        long time = System.nanoTime();
+        pathFinder.findPath(start, end);
+        return System.nanoTime() - time;
+    }
+}
@@ -0,0 +1,89 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares node expansions and wall time of A* and Jump Point Search for random queries on the
+ * maps in <code>tools/maps</code>. Both searches must find paths of the same length. The
+ * hierarchical search is measured as well: the time of the abstract search, which a route pays
+ * up front, and how much longer its refined paths are.
+ */
+public class PathFinderBenchmark {
+    private static final int QUERIES_PER_MAP = 100;
+
+    private static final int WARMUP_ROUNDS = 2;
+
+    /**
+     * Runs the benchmark.
+     * 
+     * @param args optional maps directory, <code>tools/maps</code> by default
+     * 
+     * @throws IOException if an I/O error occurs
+     */
+    public static void main(String[] args) throws IOException {
+        File dir = new File(args.length > 0 ? args[0] : "tools/maps");
+        Map<String, long[]> results = new LinkedHashMap<String, long[]>();
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            results.clear();
+            for (BenchmarkMap map : BenchmarkMap.loadAll(dir)) {
+                long[] result = results.get(map.getGroup());
+                if (result == null) {
+                    result = new long[9];
+                    results.put(map.getGroup(), result);
+                }
+                run(map, result);
+            }
+        }
+        System.out.println("maps              queries   A* expanded    A* ms  JPS expanded   JPS ms"
+                + "  HPA* expanded  HPA* ms  HPA* longer");
+        for (Map.Entry<String, long[]> entry : results.entrySet()) {
+            long[] result = entry.getValue();
+            System.out.println(String.format("%-16s %8d %13d %8d %13d %8d %14d %8d %11.1f%%", entry.getKey(),
+                    result[0], result[1], result[2] / 1000000, result[3], result[4] / 1000000,
+                    result[5], result[6] / 1000000, 100.0 * result[7] / Math.max(result[8], 1)));
+        }
+    }
+
+    private static void run(BenchmarkMap map, long[] result) {
+        Ants ants = map.createAnts();
+        TileType[][] exploredTiles = map.createExploredTiles();
+        AStar aStar = new AStar(ants, exploredTiles);
+        JumpPointSearch jumpPointSearch = new JumpPointSearch(ants, exploredTiles);
+        HierarchicalPathFinder hierarchical = new HierarchicalPathFinder(ants, exploredTiles);
+        IntList land = map.getLandTiles();
+        Random random = new Random(42);
+        for (int query = 0; query < QUERIES_PER_MAP; query++) {
+            int start = land.get(random.nextInt(land.size()));
+            int end = land.get(random.nextInt(land.size()));
+            long time = System.nanoTime();
+            boolean aStarFound = aStar.findPath(start, end);
+            result[2] += System.nanoTime() - time;
+            time = System.nanoTime();
+            boolean jumpPointFound = jumpPointSearch.findPath(start, end);
+            result[4] += System.nanoTime() - time;
+            time = System.nanoTime();
+            boolean hierarchicalFound = hierarchical.findAbstractPath(start, end);
+            result[6] += System.nanoTime() - time;
+            result[5] += hierarchical.getExpandedCounter();
+            result[0]++;
+            result[1] += aStar.getExpandedCounter();
+            result[3] += jumpPointSearch.getExpandedCounter();
+            if (aStarFound != jumpPointFound
+                    || aStarFound && aStar.getPath().size() != jumpPointSearch.getPath().size()) {
+                throw new IllegalStateException("different path lengths on " + map.getName()
+                        + " from " + start + " to " + end);
+            }
+            if (hierarchicalFound != aStarFound) {
+                throw new IllegalStateException("hierarchical search disagrees on " + map.getName()
+                        + " from " + start + " to " + end);
+            }
+            if (hierarchicalFound) {
+                hierarchical.findPath(start, end);
+                result[7] += hierarchical.getPath().size() - aStar.getPath().size();
+                result[8] += aStar.getPath().size();
+            }
+        }
+    }
+}
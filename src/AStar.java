@@ -0,0 +1,196 @@
+/**
+ * Reusable A* search on location indexes. All state lives in arrays sized to
+ * the map, which are invalidated by a generation counter instead of being
+ * reallocated, so searching does not allocate after the first few calls.
+ * Unexplored tiles are treated as land, the heuristic is the Manhattan
+ * distance on the wrapped map, or the landmark distance if it is larger. Both
+ * never overestimate the costs.
+ * 
+ * @see AStarRoute
+ */
+public class AStar implements IPathFinder
+{
+    /**
+     * Costs for moving onto a passable tile.
+     */
+    public static final int STEP_COSTS = 10;
+
+    private static final Aim[] DIRECTIONS = Aim.values();
+
+    private final Ants game;
+    private final TileType[][] exploredTiles;
+    private final int rows;
+    private final int cols;
+
+    /**
+     * Costs of the best known path from start, valid if the tile has been
+     * reached in the current search
+     */
+    private final int[] g;
+    private final int[] parents;
+    private final SearchSpace space;
+    private final boolean[] closed;
+    private final IndexedIntHeap openList;
+    private final IntList path;
+    private int expandedCounter;
+    private int start;
+
+    /**
+     * Tighter heuristic if set
+     */
+    private Landmarks landmarks;
+
+    public AStar(Ants game, TileType[][] exploredTiles)
+    {
+	this.game = game;
+	this.exploredTiles = exploredTiles;
+	rows = game.getRows();
+	cols = game.getCols();
+
+	int cells = rows * cols;
+	g = new int[cells];
+	parents = new int[cells];
+	space = new SearchSpace(game, cells);
+	closed = new boolean[cells];
+	openList = new IndexedIntHeap(cells);
+	path = new IntList();
+    }
+
+    @Override
+    public boolean findPath(int start, int end)
+    {
+	this.start = start;
+	nextGeneration();
+	path.clear();
+	expandedCounter = 0;
+
+	visit(start, 0, -1, end);
+
+	while (!openList.isEmpty())
+	{
+	    if ((expandedCounter & 63) == 0 && SearchSpace.isOutOfTime(game))
+		break;
+
+	    int index = openList.poll();
+
+	    // if target is reached, build shortest path from target to start
+	    if (index == end)
+	    {
+		for (int i = end; i != start; i = parents[i])
+		    path.add(i);
+		reverse(path);
+		return true;
+	    }
+
+	    closed[index] = true;
+	    expandedCounter++;
+
+	    // target not reached yet, so expand path
+	    int costs = g[index] + STEP_COSTS;
+	    for (Aim direction : DIRECTIONS)
+	    {
+		int neighbour = game.getNeighbour(index, direction);
+		if (isPassable(neighbour))
+		    visit(neighbour, costs, index, end);
+	    }
+	}
+
+	// no path found
+	return false;
+    }
+
+    @Override
+    public IntList getPath()
+    {
+	return path;
+    }
+
+    @Override
+    public DirectionPath getDirectionPath()
+    {
+	return DirectionPath.create(game, start, path);
+    }
+
+    @Override
+    public int getExpandedCounter()
+    {
+	return expandedCounter;
+    }
+
+    /**
+     * Uses landmark distances in addition to the Manhattan distance as
+     * heuristic.
+     * 
+     * @param landmarks
+     *            landmarks, <code>null</code> for the Manhattan distance only
+     */
+    public void setLandmarks(Landmarks landmarks)
+    {
+	this.landmarks = landmarks;
+    }
+
+    /**
+     * Checks whether a tile may be entered. Unexplored tiles are passable.
+     * 
+     * @param index
+     *            location index
+     * @return <code>false</code> if the tile is known to be water
+     */
+    public boolean isPassable(int index)
+    {
+	return exploredTiles[index / cols][index % cols] != TileType.WATER;
+    }
+
+    /**
+     * Calculates heuristic (Manhattan or landmark) distance on the wrapped map.
+     * 
+     * @param src
+     *            start location index
+     * @param dest
+     *            target location index
+     * @return The estimated cost to reach the target tile.
+     */
+    public int calculateH(int src, int dest)
+    {
+	int distance = space.getDistance(src, dest);
+	if (landmarks != null)
+	    distance = Math.max(distance, landmarks.getLowerBound(src, dest));
+	return distance * STEP_COSTS;
+    }
+
+    /**
+     * Opens a tile or lowers its costs if a cheaper way to it was found.
+     */
+    private void visit(int index, int costs, int parent, int end)
+    {
+	if (!space.isReached(index))
+	{
+	    space.reach(index);
+	    closed[index] = false;
+	}
+	else if (closed[index] || costs >= g[index])
+	{
+	    return;
+	}
+
+	g[index] = costs;
+	parents[index] = parent;
+	openList.put(index, costs + calculateH(index, end));
+    }
+
+    private void nextGeneration()
+    {
+	openList.clear();
+	space.nextGeneration();
+    }
+
+    private static void reverse(IntList list)
+    {
+	for (int i = 0, j = list.size() - 1; i < j; i++, j--)
+	{
+	    int value = list.get(i);
+	    list.set(i, list.get(j));
+	    list.set(j, value);
+	}
+    }
+}
@@ -1,10 +1,9 @@
-import java.util.List;
 import java.util.logging.Logger;
 
 public abstract class AbstractRoute implements IRoute
 {
     protected Ants game;
-    protected List<Tile> path;
+    protected DirectionPath path;
     protected Tile start;
     protected Tile end;
     protected Tile current;
@@ -20,17 +19,7 @@ public abstract class AbstractRoute implements IRoute
     {
 	if (path != null && counter < path.size())
 	{
-	    List<Aim> directions = game.getDirections(current, path.get(counter));
-	    if (directions.size() > 0)
-	    {
-		Aim ret = directions.get(0);
-		return ret;
-	    }
-	    else
-	    {
-		log.info("no direction found");
-		return null;
-	    }
+	    return path.get(counter);
 	}
 	else
 	{
@@ -42,13 +31,40 @@ public abstract class AbstractRoute implements IRoute
     @Override
     public void update()
     {
-	current = game.getTile(current, game.getDirections(current, path.get(counter)).get(0));
+	current = game.getTile(current, path.get(counter));
 	counter++;
 
 	if (counter >= path.size())
 	    isFinished = true;
     }
 
+    @Override
+    public int getRemainingMoves()
+    {
+	return path != null ? path.size() - counter : 0;
+    }
+
+    @Override
+    public int getPosition(int moves)
+    {
+	int index = game.getIndex(current);
+	for (int i = counter; i < counter + moves; i++)
+	    index = game.getNeighbour(index, path.get(i));
+	return index;
+    }
+
+    @Override
+    public void detour(DirectionPath steps, int moves)
+    {
+	DirectionPath detoured = new DirectionPath(steps.size() + path.size() - counter - moves);
+	for (int i = 0; i < steps.size(); i++)
+	    detoured.add(steps.get(i));
+	for (int i = counter + moves; i < path.size(); i++)
+	    detoured.add(path.get(i));
+	path = detoured;
+	counter = 0;
+    }
+
     @Override
     public Tile getStart()
     {
@@ -1,70 +1,148 @@
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-import java.util.regex.Pattern;
-
 /**
- * Handles system input stream parsing.
+ * Handles system input stream parsing. Lines are decoded straight from the bytes of the input
+ * buffer, without creating objects per line.
  */
 public abstract class AbstractSystemInputParser extends AbstractSystemInputReader {
-    private static final String READY = "ready";
+    private static final byte[] READY = { 'r', 'e', 'a', 'd', 'y' };
     
-    private static final String GO = "go";
+    private static final byte[] GO = { 'g', 'o' };
     
-    private static final char COMMENT_CHAR = '#';
+    private static final byte[] TURN = { 't', 'u', 'r', 'n' };
     
-    private final List<String> input = new ArrayList<String>();
+    private static final byte COMMENT_CHAR = '#';
+    
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+    
+    private final int setupValues[] = new int[SetupToken.values().length];
+    
+    private final IntList updates = new IntList(4096);
+    
+    private int position;
+    
+    private boolean streaming;
+    
+    private boolean setUp;
+    
+    private boolean updating;
     
     private enum SetupToken {
         LOADTIME, TURNTIME, ROWS, COLS, TURNS, VIEWRADIUS2, ATTACKRADIUS2, SPAWNRADIUS2;
         
-        private static final Pattern PATTERN = compilePattern(SetupToken.class);
+        private static final SetupToken[] VALUES = values();
+        
+        private final byte[] keyword = name().toLowerCase().getBytes();
     }
     
     private enum UpdateToken {
         W, A, F, D, H;
         
-        private static final Pattern PATTERN = compilePattern(UpdateToken.class);
-    }
-    
-    private static Pattern compilePattern(Class<? extends Enum> clazz) {
-        StringBuilder builder = new StringBuilder("(");
-        for (Enum enumConstant : clazz.getEnumConstants()) {
-            if (enumConstant.ordinal() > 0) {
-                builder.append("|");
+        private static final UpdateToken[] VALUES = values();
+        
+        private static UpdateToken fromSymbol(byte symbol) {
+            switch (symbol) {
+                case 'w':
+                    return W;
+                case 'a':
+                    return A;
+                case 'f':
+                    return F;
+                case 'd':
+                    return D;
+                case 'h':
+                    return H;
+                default:
+                    return null;
             }
-            builder.append(enumConstant.name());
         }
-        builder.append(")");
-        return Pattern.compile(builder.toString());
+    }
+    
+    /**
+     * Returns whether update lines are applied as soon as they are read.
+     * 
+     * @return <code>true</code> if update lines are applied as soon as they are read,
+     *         <code>false</code> if they are collected until <code>go</code> arrives
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+    
+    /**
+     * Sets whether update lines are applied as soon as they are read. In streaming mode
+     * {@link #beforeUpdate()} is called on the first line of a new turn, each update line is
+     * applied right away and {@link #doTurn()} starts as soon as <code>go</code> arrives.
+     * 
+     * @param streaming <code>true</code> to apply update lines as soon as they are read
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
     }
     
     /**
      * Collects lines read from system input stream until a keyword appears and then parses them.
+     * In streaming mode update lines are applied as soon as they are read.
      */
     @Override
-    public void processLine(String line) {
-        if (line.equals(READY)) {
-            parseSetup(input);
+    public void processLine(byte[] line, int length) {
+        int end = 0;
+        while (end < length && line[end] != COMMENT_CHAR) {
+            end++;
+        }
+        while (end > 0 && isWhitespace(line[end - 1])) {
+            end--;
+        }
+        int start = 0;
+        while (start < end && isWhitespace(line[start])) {
+            start++;
+        }
+        if (start == end) {
+            return;
+        }
+        if (equals(line, start, end, READY)) {
+            parseSetup();
+            setUp = true;
             doTurn();
             finishTurn();
-            input.clear();
-        } else if (line.equals(GO)) {
-            parseUpdate(input);
+            updates.clear();
+        } else if (equals(line, start, end, GO)) {
+            if (streaming && setUp) {
+                startUpdate();
+                updating = false;
+                afterUpdate();
+            } else {
+                parseUpdate();
+            }
             doTurn();
             finishTurn();
-            input.clear();
-        } else if (!line.isEmpty()) {
-            input.add(line);
+            updates.clear();
+        } else {
+            collectLine(line, start, end);
+            if (streaming && setUp) {
+                if (!updates.isEmpty() || startsWith(line, start, end, TURN)) {
+                    startUpdate();
+                }
+                for (int i = 0; i < updates.size(); i += 4) {
+                    applyUpdate(UpdateToken.VALUES[updates.get(i)], updates.get(i + 1),
+                            updates.get(i + 2), updates.get(i + 3));
+                }
+                updates.clear();
+            }
         }
     }
     
     /**
-     * Parses the setup information from system input stream.
-     * 
-     * @param input setup information
+     * Lets the bot use the time while update lines are still arriving in streaming mode.
+     */
+    @Override
+    protected void inputDrained() {
+        if (updating) {
+            duringUpdate();
+        }
+    }
+    
+    /**
+     * Parses the setup information collected from system input stream.
      */
-    public void parseSetup(List<String> input) {
+    public void parseSetup() {
         int loadTime = 0;
         int turnTime = 0;
         int rows = 0;
@@ -73,44 +151,32 @@ public abstract class AbstractSystemInputParser extends AbstractSystemInputReade
         int viewRadius2 = 0;
         int attackRadius2 = 0;
         int spawnRadius2 = 0;
-        for (String line : input) {
-            line = removeComment(line);
-            if (line.isEmpty()) {
-                continue;
-            }
-            Scanner scanner = new Scanner(line);
-            if (!scanner.hasNext()) {
-                continue;
-            }
-            String token = scanner.next().toUpperCase();
-            if (!SetupToken.PATTERN.matcher(token).matches()) {
-                continue;
-            }
-            SetupToken setupToken = SetupToken.valueOf(token);
+        for (SetupToken setupToken : SetupToken.VALUES) {
+            int value = setupValues[setupToken.ordinal()];
             switch (setupToken) {
                 case LOADTIME:
-                    loadTime = scanner.nextInt();
+                    loadTime = value;
                 break;
                 case TURNTIME:
-                    turnTime = scanner.nextInt();
+                    turnTime = value;
                 break;
                 case ROWS:
-                    rows = scanner.nextInt();
+                    rows = value;
                 break;
                 case COLS:
-                    cols = scanner.nextInt();
+                    cols = value;
                 break;
                 case TURNS:
-                    turns = scanner.nextInt();
+                    turns = value;
                 break;
                 case VIEWRADIUS2:
-                    viewRadius2 = scanner.nextInt();
+                    viewRadius2 = value;
                 break;
                 case ATTACKRADIUS2:
-                    attackRadius2 = scanner.nextInt();
+                    attackRadius2 = value;
                 break;
                 case SPAWNRADIUS2:
-                    spawnRadius2 = scanner.nextInt();
+                    spawnRadius2 = value;
                 break;
             }
         }
@@ -118,51 +184,13 @@ public abstract class AbstractSystemInputParser extends AbstractSystemInputReade
     }
     
     /**
-     * Parses the update information from system input stream.
-     * 
-     * @param input update information
+     * Parses the update information collected from system input stream.
      */
-    public void parseUpdate(List<String> input) {
+    public void parseUpdate() {
         beforeUpdate();
-        for (String line : input) {
-            line = removeComment(line);
-            if (line.isEmpty()) {
-                continue;
-            }
-            Scanner scanner = new Scanner(line);
-            if (!scanner.hasNext()) {
-                continue;
-            }
-            String token = scanner.next().toUpperCase();
-            if (!UpdateToken.PATTERN.matcher(token).matches()) {
-                continue;
-            }
-            UpdateToken updateToken = UpdateToken.valueOf(token);
-            int row = scanner.nextInt();
-            int col = scanner.nextInt();
-            switch (updateToken) {
-                case W:
-                    addWater(row, col);
-                break;
-                case A:
-                    if (scanner.hasNextInt()) {
-                        addAnt(row, col, scanner.nextInt());
-                    }
-                break;
-                case F:
-                    addFood(row, col);
-                break;
-                case D:
-                    if (scanner.hasNextInt()) {
-                        removeAnt(row, col, scanner.nextInt());
-                    }
-                break;
-                case H:
-                    if (scanner.hasNextInt()) {
-                        addHill(row, col, scanner.nextInt());
-                    }
-                break;
-            }
+        for (int i = 0; i < updates.size(); i += 4) {
+            applyUpdate(UpdateToken.VALUES[updates.get(i)], updates.get(i + 1),
+                    updates.get(i + 2), updates.get(i + 3));
         }
         afterUpdate();
     }
@@ -224,13 +252,21 @@ public abstract class AbstractSystemInputParser extends AbstractSystemInputReade
     
     /**
      * Adds new hill tile.
-     *
+     * 
      * @param row row index
      * @param col column index
      * @param owner player id
      */
     public abstract void addHill(int row, int col, int owner);
     
+    /**
+     * Enables performing actions while the game state is being updated in streaming mode, like
+     * starting incremental precomputation. Called whenever all update lines received so far have
+     * been applied and more are expected. Does nothing by default.
+     */
+    public void duringUpdate() {
+    }
+    
     /**
      * Enables performing actions which should take place just after the game state has been
      * updated.
@@ -250,14 +286,109 @@ public abstract class AbstractSystemInputParser extends AbstractSystemInputReade
         System.out.flush();
     }
     
-    private String removeComment(String line) {
-        int commentCharIndex = line.indexOf(COMMENT_CHAR);
-        String lineWithoutComment;
-        if (commentCharIndex >= 0) {
-            lineWithoutComment = line.substring(0, commentCharIndex).trim();
+    private void collectLine(byte[] line, int start, int end) {
+        position = start;
+        while (position < end && !isWhitespace(line[position])) {
+            position++;
+        }
+        if (position - start == 1) {
+            UpdateToken updateToken = UpdateToken.fromSymbol(line[start]);
+            if (updateToken == null) {
+                return;
+            }
+            int row = nextInt(line, end);
+            int col = nextInt(line, end);
+            int owner = nextInt(line, end);
+            if (row == NO_VALUE || col == NO_VALUE) {
+                return;
+            }
+            updates.add(updateToken.ordinal());
+            updates.add(row);
+            updates.add(col);
+            updates.add(owner);
         } else {
-            lineWithoutComment = line;
+            for (SetupToken setupToken : SetupToken.VALUES) {
+                if (equals(line, start, position, setupToken.keyword)) {
+                    int value = nextInt(line, end);
+                    if (value != NO_VALUE) {
+                        setupValues[setupToken.ordinal()] = value;
+                    }
+                    return;
+                }
+            }
         }
-        return lineWithoutComment;
+    }
+    
+    private void startUpdate() {
+        if (!updating) {
+            updating = true;
+            beforeUpdate();
+        }
+    }
+    
+    private void applyUpdate(UpdateToken updateToken, int row, int col, int owner) {
+        switch (updateToken) {
+            case W:
+                addWater(row, col);
+            break;
+            case A:
+                if (owner != NO_VALUE) {
+                    addAnt(row, col, owner);
+                }
+            break;
+            case F:
+                addFood(row, col);
+            break;
+            case D:
+                if (owner != NO_VALUE) {
+                    removeAnt(row, col, owner);
+                }
+            break;
+            case H:
+                if (owner != NO_VALUE) {
+                    addHill(row, col, owner);
+                }
+            break;
+        }
+    }
+    
+    private int nextInt(byte[] line, int end) {
+        while (position < end && isWhitespace(line[position])) {
+            position++;
+        }
+        boolean negative = position < end && line[position] == '-';
+        if (negative) {
+            position++;
+        }
+        int start = position;
+        int value = 0;
+        while (position < end && line[position] >= '0' && line[position] <= '9') {
+            value = value * 10 + line[position] - '0';
+            position++;
+        }
+        if (position == start || position < end && !isWhitespace(line[position])) {
+            return NO_VALUE;
+        }
+        return negative ? -value : value;
+    }
+    
+    private static boolean equals(byte[] line, int start, int end, byte[] keyword) {
+        if (end - start != keyword.length) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length; i++) {
+            if (line[start + i] != keyword[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean startsWith(byte[] line, int start, int end, byte[] keyword) {
+        return end - start >= keyword.length && equals(line, start, start + keyword.length, keyword);
+    }
+    
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\t';
     }
 }
@@ -1,33 +1,63 @@
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 
 /**
  * Handles system input stream reading.
  */
 public abstract class AbstractSystemInputReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final byte buffer[] = new byte[BUFFER_SIZE];
+    
+    private byte line[] = new byte[256];
+    
     /**
-     * Reads system input stream line by line. All characters are converted to lower case and each
-     * line is passed for processing to {@link #processLine(String)} method.
+     * Reads system input stream line by line through a reusable buffer. All characters are
+     * converted to lower case and each line is passed for processing to
+     * {@link #processLine(byte[], int)} method.
      * 
      * @throws IOException if an I/O error occurs
      */
     public void readSystemInput() throws IOException {
-        StringBuilder line = new StringBuilder();
-        int c;
-        while ((c = System.in.read()) >= 0) {
-            if (c == '\r' || c == '\n') {
-                processLine(line.toString().toLowerCase().trim());
-                line.setLength(0);
-            } else {
-                line = line.append((char)c);
+        InputStream in = System.in;
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                byte c = buffer[i];
+                if (c == '\r' || c == '\n') {
+                    processLine(line, length);
+                    length = 0;
+                } else {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    if (c >= 'A' && c <= 'Z') {
+                        c += 'a' - 'A';
+                    }
+                    line[length++] = c;
+                }
+            }
+            if (in.available() == 0) {
+                inputDrained();
             }
         }
     }
     
+    /**
+     * Called by {@link #readSystemInput()} method when all input received so far has been
+     * processed and the next read is likely to block. Does nothing by default.
+     */
+    protected void inputDrained() {
+    }
+    
     /**
      * Process a line read out by {@link #readSystemInput()} method in a way defined by subclass
-     * implementation.
+     * implementation. The buffer is reused for the next line, so it must not be kept.
      * 
-     * @param line single, trimmed line of system input
+     * @param line buffer holding single, lower case line of system input
+     * @param length number of characters of the line in <code>line</code>
      */
-    public abstract void processLine(String line);
+    public abstract void processLine(byte[] line, int length);
 }
@@ -19,6 +19,8 @@ public enum Aim {
     
     private static final Map<Character, Aim> symbolLookup = new HashMap<Character, Aim>();
     
+    private static final Aim[] values = values();
+    
     static {
         symbolLookup.put('n', NORTH);
         symbolLookup.put('e', EAST);
@@ -75,4 +77,15 @@ public enum Aim {
     public static Aim fromSymbol(char symbol) {
         return symbolLookup.get(symbol);
     }
+    
+    /**
+     * Returns direction with the specified ordinal.
+     * 
+     * @param ordinal ordinal of the direction
+     * 
+     * @return direction with the specified ordinal
+     */
+    public static Aim valueOf(int ordinal) {
+        return values[ordinal];
+    }
 }
@@ -1,43 +1,125 @@
-import java.util.List;
-import java.util.logging.Logger;
-
+/**
+ * An own ant as tracked by the <code>AntRegistry</code> from turn to turn. It
+ * keeps its id as long as it lives, and the route it follows keeps going with
+ * it instead of being looked up by its tile every turn.
+ *
+ * @see AntRegistry
+ */
 public class Ant
 {
-    private Logger log;
+    private final int id;
+    private final int birthTurn;
     private AntStatus antStatus;
-    private Aim lastDirection;
     private Tile position;
+
+    /**
+     * Tile the ant will stand on in the next turn
+     */
+    private Tile nextPosition;
+
+    /**
+     * Route the ant follows, <code>null</code> if it has no task
+     */
+    private IRoute route;
+
+    /**
+     * Direction the ant asked for along its route in this turn,
+     * <code>null</code> if it did not
+     */
+    private Aim routeDirection;
+
+    public Ant(int id, Tile position, int birthTurn)
+    {
+	this.id = id;
+	this.birthTurn = birthTurn;
+	antStatus = AntStatus.IDLE;
+	setPosition(position);
+    }
+
+    public int getId()
+    {
+	return id;
+    }
+
+    /**
+     * @return number of turns the ant has been alive
+     */
+    public int getAge(int turn)
+    {
+	return turn - birthTurn;
+    }
+
+    public AntStatus getStatus()
+    {
+	return antStatus;
+    }
+
+    public void setStatus(AntStatus antStatus)
+    {
+	this.antStatus = antStatus;
+    }
+
     public Tile getPosition()
     {
 	return position;
     }
 
+    /**
+     * Puts the ant on its tile at the start of a turn. Until it gets an order
+     * it is expected to stay there. An ant without a task is idle again.
+     */
     public void setPosition(Tile position)
     {
 	this.position = position;
+	nextPosition = position;
+	routeDirection = null;
+	if (route == null)
+	    antStatus = AntStatus.IDLE;
     }
 
-    private Tile nextPosition;
-    private FavDirection favDirection;
-    private List<Tile> lastTwoPositions;
+    public Tile getNextPosition()
+    {
+	return nextPosition;
+    }
+
+    public void setNextPosition(Tile nextPosition)
+    {
+	this.nextPosition = nextPosition;
+    }
+
+    public IRoute getRoute()
+    {
+	return route;
+    }
+
+    public Aim getRouteDirection()
+    {
+	return routeDirection;
+    }
+
+    public void setRouteDirection(Aim routeDirection)
+    {
+	this.routeDirection = routeDirection;
+    }
+
+    public boolean hasTask()
+    {
+	return route != null;
+    }
 
-    public Ant(Tile tile, Logger log)
+    /**
+     * Lets the ant follow a route until it is finished or given up.
+     */
+    public void setTask(AntStatus antStatus, IRoute route)
     {
-	position = tile;
-	this.log = log;
-	favDirection = FavDirection.values()[(int) (Math.random() * FavDirection.values().length)];
-	log.info("my favorite direction is : " + favDirection.toString());
+	this.antStatus = antStatus;
+	this.route = route;
     }
 
-    private enum FavDirection
+    public void clearTask()
     {
-	NORTH,
-	NORTHEAST,
-	EAST,
-	SOUTHEAST,
-	SOUTH,
-	SOUTHWEST,
-	WEST,
-	NORTHWEST
+	antStatus = AntStatus.IDLE;
+	route = null;
+	routeDirection = null;
     }
 }
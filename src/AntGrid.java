@@ -0,0 +1,216 @@
+import java.util.Arrays;
+
+/**
+ * Spatial index of all ants on the map, rebuilt once per turn. The map is
+ * divided into square cells and the ants are bucketed by cell and, within a
+ * cell, by owner, so the enemies of a cell lie next to each other. A range
+ * query only visits the cells overlapping the square around its circle,
+ * wrapping around the map edges like the map itself, so it takes time
+ * proportional to the ants it finds plus a few cells. The cells are as wide
+ * as ants reach in a battle, the attack radius plus a move of either ant, but
+ * never wider than the view radius.
+ */
+public class AntGrid
+{
+    /**
+     * Owner which stands for all enemies in queries.
+     */
+    public static final int ENEMIES = -1;
+
+    private final Ants game;
+
+    /**
+     * Width and height of the cells. Cells in the last row and column are
+     * smaller if the map size is no multiple of it.
+     */
+    private final int side;
+    private final int cellRows;
+    private final int cellCols;
+
+    /**
+     * Number of owners the buckets are made for, grows when a new player is
+     * seen
+     */
+    private int owners;
+
+    /**
+     * Location indexes of the ants, sorted by bucket = cell * owners + owner.
+     * The ants of bucket b are stored from <code>bucketStarts[b]</code> to
+     * <code>bucketStarts[b + 1]</code>.
+     */
+    private int[] bucketStarts;
+    private final int[] ants;
+
+    private final IntList antIndexes;
+    private final IntList found;
+
+    public AntGrid(Ants game)
+    {
+	this.game = game;
+
+	int reach = (int) Math.ceil(Math.sqrt(game.getAttackRadius2())) + 2;
+	side = Math.max(1, Math.min(reach, (int) Math.sqrt(game.getViewRadius2())));
+	cellRows = (game.getRows() + side - 1) / side;
+	cellCols = (game.getCols() + side - 1) / side;
+
+	owners = 2;
+	bucketStarts = new int[cellRows * cellCols * owners + 1];
+	ants = new int[game.getRows() * game.getCols()];
+	antIndexes = new IntList();
+	found = new IntList();
+    }
+
+    /**
+     * Buckets the ants of the current turn by counting sort.
+     */
+    public void update()
+    {
+	antIndexes.clear();
+	int maxOwner = 0;
+	for (Tile ant : game.getMyAnts())
+	    antIndexes.add(game.getIndex(ant));
+	for (Tile ant : game.getEnemyAnts())
+	{
+	    antIndexes.add(game.getIndex(ant));
+	    maxOwner = Math.max(maxOwner, game.getOwner(game.getIndex(ant)));
+	}
+
+	if (maxOwner >= owners)
+	{
+	    owners = maxOwner + 1;
+	    bucketStarts = new int[cellRows * cellCols * owners + 1];
+	}
+	else
+	    Arrays.fill(bucketStarts, 0);
+
+	// count the ants of every bucket, sum up the counts to the ends of the
+	// buckets and fill every bucket from its end
+	int buckets = bucketStarts.length - 1;
+	for (int i = 0; i < antIndexes.size(); i++)
+	    bucketStarts[getBucket(antIndexes.get(i))]++;
+	for (int bucket = 1; bucket < buckets; bucket++)
+	    bucketStarts[bucket] += bucketStarts[bucket - 1];
+	bucketStarts[buckets] = antIndexes.size();
+	for (int i = 0; i < antIndexes.size(); i++)
+	{
+	    int ant = antIndexes.get(i);
+	    ants[--bucketStarts[getBucket(ant)]] = ant;
+	}
+    }
+
+    /**
+     * Collects the ants of an owner within a squared distance of a location.
+     *
+     * @param index
+     *            location index
+     * @param radius2
+     *            squared distance
+     * @param owner
+     *            owner of the ants, <code>ENEMIES</code> for all enemies
+     * @param result
+     *            the location indexes of the ants are appended to it
+     */
+    public void getAnts(int index, int radius2, int owner, IntList result)
+    {
+	if (owner >= owners)
+	    return;
+
+	int rows = game.getRows();
+	int cols = game.getCols();
+	int radius = (int) Math.sqrt(radius2);
+
+	// tiles within the radius, a side shorter than the map does not wrap
+	// onto itself
+	int firstRow = 0;
+	int lastRow = rows - 1;
+	if (2 * radius + 1 < rows)
+	{
+	    firstRow = game.getRow(index) - radius;
+	    lastRow = game.getRow(index) + radius;
+	}
+	int firstCol = 0;
+	int lastCol = cols - 1;
+	if (2 * radius + 1 < cols)
+	{
+	    firstCol = game.getCol(index) - radius;
+	    lastCol = game.getCol(index) + radius;
+	}
+
+	// the cells are visited round the map, the range may reach the first
+	// one again through a smaller cell at the edge
+	int firstCellRow = (firstRow + rows) % rows / side;
+	int firstCellCol = (firstCol + cols) % cols / side;
+	for (int row = firstRow; row <= lastRow;)
+	{
+	    int wrappedRow = (row + rows) % rows;
+	    int cellRow = wrappedRow / side;
+	    if (row != firstRow && cellRow == firstCellRow)
+		break;
+	    for (int col = firstCol; col <= lastCol;)
+	    {
+		int wrappedCol = (col + cols) % cols;
+		int cellCol = wrappedCol / side;
+		if (col != firstCol && cellCol == firstCellCol)
+		    break;
+		collect(cellRow * cellCols + cellCol, index, radius2, owner, result);
+		col += Math.min((cellCol + 1) * side, cols) - wrappedCol;
+	    }
+	    row += Math.min((cellRow + 1) * side, rows) - wrappedRow;
+	}
+    }
+
+    /**
+     * Finds the ant of an owner closest to a location. The search radius
+     * starts at the cell size and doubles until an ant is found.
+     *
+     * @param index
+     *            location index
+     * @param owner
+     *            owner of the ant, <code>ENEMIES</code> for any enemy
+     * @return location index of the ant, -1 if there is none
+     */
+    public int getNearest(int index, int owner)
+    {
+	for (int radius = side;; radius *= 2)
+	{
+	    boolean isWholeMap = 2 * radius + 1 >= game.getRows() && 2 * radius + 1 >= game.getCols();
+	    found.clear();
+	    getAnts(index, isWholeMap ? Integer.MAX_VALUE : radius * radius, owner, found);
+	    if (found.size() > 0 || isWholeMap)
+	    {
+		int nearest = -1;
+		int nearestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < found.size(); i++)
+		{
+		    int distance = game.getDistance(index, found.get(i));
+		    if (distance < nearestDistance)
+		    {
+			nearestDistance = distance;
+			nearest = found.get(i);
+		    }
+		}
+		return nearest;
+	    }
+	}
+    }
+
+    private int getBucket(int index)
+    {
+	int cell = game.getRow(index) / side * cellCols + game.getCol(index) / side;
+	return cell * owners + game.getOwner(index);
+    }
+
+    /**
+     * Collects the ants of an owner in a cell within a squared distance.
+     */
+    private void collect(int cell, int index, int radius2, int owner, IntList result)
+    {
+	int first = cell * owners + (owner == ENEMIES ? 1 : owner);
+	int last = owner == ENEMIES ? (cell + 1) * owners : first + 1;
+	for (int i = bucketStarts[first]; i < bucketStarts[last]; i++)
+	{
+	    if (game.getDistance(index, ants[i]) <= radius2)
+		result.add(ants[i]);
+	}
+    }
+}
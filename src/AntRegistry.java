@@ -0,0 +1,173 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of the own ants from turn to turn. The engine only reports the
+ * tiles own ants stand on, so every ant is expected on the tile its order of
+ * the last turn leads to, or on its old tile if it got none. An ant found
+ * there is the same ant as before, an ant missing there has died and an ant
+ * nobody is expected on has just been spawned. Ants are indexed by their
+ * location index, so matching takes time linear in the number of ants. Ants
+ * gathering food are also indexed by the location index of their food, so
+ * tasks have to be given and taken through the registry.
+ */
+public class AntRegistry
+{
+    private final Ants game;
+
+    /**
+     * Ant standing on every tile, <code>null</code> if none
+     */
+    private final Ant[] antsByIndex;
+
+    /**
+     * Ant heading for the food on every tile, <code>null</code> if none
+     */
+    private final Ant[] antsByFood;
+
+    private List<Ant> ants;
+    private List<Ant> survivors;
+    private final List<Ant> deadAnts;
+    private final List<Ant> newAnts;
+    private int nextId;
+
+    public AntRegistry(Ants game)
+    {
+	this.game = game;
+	antsByIndex = new Ant[game.getRows() * game.getCols()];
+	antsByFood = new Ant[game.getRows() * game.getCols()];
+	ants = new ArrayList<Ant>();
+	survivors = new ArrayList<Ant>();
+	deadAnts = new ArrayList<Ant>();
+	newAnts = new ArrayList<Ant>();
+	nextId = 0;
+    }
+
+    /**
+     * Matches the ants of the last turn with the own ants reported in this
+     * one.
+     *
+     * @param turn
+     *            current turn, the birth turn of new ants
+     */
+    public void update(int turn)
+    {
+	deadAnts.clear();
+	newAnts.clear();
+	for (Ant ant : ants)
+	    antsByIndex[game.getIndex(ant.getPosition())] = null;
+
+	survivors.clear();
+	for (Ant ant : ants)
+	{
+	    int index = game.getIndex(ant.getNextPosition());
+	    if (game.getIlk(index) == Ilk.MY_ANT && antsByIndex[index] == null)
+	    {
+		ant.setPosition(ant.getNextPosition());
+		antsByIndex[index] = ant;
+		survivors.add(ant);
+	    }
+	    else
+	    {
+		clearTask(ant);
+		deadAnts.add(ant);
+	    }
+	}
+
+	for (Tile tile : game.getMyAnts())
+	{
+	    int index = game.getIndex(tile);
+	    if (antsByIndex[index] == null)
+	    {
+		Ant ant = new Ant(nextId++, tile, turn);
+		antsByIndex[index] = ant;
+		survivors.add(ant);
+		newAnts.add(ant);
+	    }
+	}
+
+	List<Ant> swap = ants;
+	ants = survivors;
+	survivors = swap;
+    }
+
+    /**
+     * @return ant standing on a tile at the start of this turn,
+     *         <code>null</code> if none
+     */
+    public Ant get(Tile tile)
+    {
+	return antsByIndex[game.getIndex(tile)];
+    }
+
+    /**
+     * @param index
+     *            location index
+     */
+    public Ant get(int index)
+    {
+	return antsByIndex[index];
+    }
+
+    /**
+     * @param food
+     *            location index of food
+     * @return ant gathering the food, <code>null</code> if none
+     */
+    public Ant getGatherer(int food)
+    {
+	return antsByFood[food];
+    }
+
+    /**
+     * Lets an ant follow a route until it is finished or given up. A task it
+     * had before is dropped.
+     */
+    public void setTask(Ant ant, AntStatus antStatus, IRoute route)
+    {
+	clearTask(ant);
+	ant.setTask(antStatus, route);
+	if (antStatus == AntStatus.GATHERING)
+	    antsByFood[game.getIndex(route.getEnd())] = ant;
+    }
+
+    public void clearTask(Ant ant)
+    {
+	if (ant.getStatus() == AntStatus.GATHERING && ant.hasTask())
+	{
+	    int food = game.getIndex(ant.getRoute().getEnd());
+	    if (antsByFood[food] == ant)
+		antsByFood[food] = null;
+	}
+	ant.clearTask();
+    }
+
+    /**
+     * Returns all living ants, oldest first.
+     */
+    public List<Ant> getAnts()
+    {
+	return ants;
+    }
+
+    /**
+     * Returns the ants which died since the last turn.
+     */
+    public List<Ant> getDeadAnts()
+    {
+	return deadAnts;
+    }
+
+    /**
+     * Returns the ants which were spawned since the last turn.
+     */
+    public List<Ant> getNewAnts()
+    {
+	return newAnts;
+    }
+
+    public int size()
+    {
+	return ants.size();
+    }
+}
@@ -27,13 +27,41 @@ public class Ants {
 
     private final int spawnRadius2;
 
-    private final boolean visible[][];
+    private final long visible[];
 
-    private final Set<Tile> visionOffsets;
+    private final int visionCounts[];
+
+    private int visibleCount;
+
+    private final boolean visionSources[];
+
+    private final IntList visionSourceList = new IntList();
+
+    private final int visionRowOffsets[];
+
+    private final int visionColOffsets[];
+
+    private final int attackRowOffsets[];
+
+    private final int attackColOffsets[];
+
+    private final int threatCounts[];
+
+    private final int supportCounts[];
+
+    private final IntList attackSourceList = new IntList();
+
+    private final IntList attackSourceOwners = new IntList();
 
     private long turnStartTime;
 
-    private final Ilk map[][];
+    private final byte map[];
+
+    private final byte antOwners[];
+
+    private final Tile tiles[];
+
+    private final int neighbours[];
 
     private final Set<Tile> myAnts = new HashSet<Tile>();
 
@@ -45,7 +73,18 @@ public class Ants {
 
     private final Set<Tile> foodTiles = new HashSet<Tile>();
 
-    private final Set<Order> orders = new HashSet<Order>();
+    /**
+     * Turn in which each location index got an order, compared with <code>orderTurn</code>.
+     */
+    private final int orderStamps[];
+
+    private int orderTurn = 1;
+
+    private final IntList deadAnts = new IntList();
+
+    private final OrderWriter orderWriter = new OrderWriter(System.out);
+
+    private int orderFlushTime;
 
     /**
      * Creates new {@link Ants} object.
@@ -69,25 +108,77 @@ public class Ants {
         this.viewRadius2 = viewRadius2;
         this.attackRadius2 = attackRadius2;
         this.spawnRadius2 = spawnRadius2;
-        map = new Ilk[rows][cols];
-        for (Ilk[] row : map) {
-            Arrays.fill(row, Ilk.LAND);
+        map = new byte[rows * cols];
+        Arrays.fill(map, (byte)Ilk.LAND.ordinal());
+        antOwners = new byte[rows * cols];
+        visible = new long[(rows * cols + 63) >>> 6];
+        visionCounts = new int[rows * cols];
+        visionSources = new boolean[rows * cols];
+        orderStamps = new int[rows * cols];
+        tiles = new Tile[rows * cols];
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                tiles[row * cols + col] = new Tile(row, col);
+            }
         }
-        visible = new boolean[rows][cols];
-        for (boolean[] row : visible) {
-            Arrays.fill(row, false);
+        // calc neighbours with wrap-around applied, indexed by location and direction
+        Aim[] directions = Aim.values();
+        neighbours = new int[rows * cols * directions.length];
+        for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+                for (Aim direction : directions) {
+                    int newRow = (row + direction.getRowDelta() + rows) % rows;
+                    int newCol = (col + direction.getColDelta() + cols) % cols;
+                    neighbours[(row * cols + col) * directions.length + direction.ordinal()] =
+                            newRow * cols + newCol;
+                }
+            }
         }
         // calc vision offsets
-        visionOffsets = new HashSet<Tile>();
+        IntList rowOffsets = new IntList();
+        IntList colOffsets = new IntList();
         int mx = (int)Math.sqrt(viewRadius2);
         for (int row = -mx; row <= mx; ++row) {
             for (int col = -mx; col <= mx; ++col) {
                 int d = row * row + col * col;
                 if (d <= viewRadius2) {
-                    visionOffsets.add(new Tile(row, col));
+                    rowOffsets.add(row);
+                    colOffsets.add(col);
+                }
+            }
+        }
+        visionRowOffsets = new int[rowOffsets.size()];
+        visionColOffsets = new int[colOffsets.size()];
+        for (int i = 0; i < visionRowOffsets.length; i++) {
+            visionRowOffsets[i] = rowOffsets.get(i);
+            visionColOffsets[i] = colOffsets.get(i);
+        }
+        // calc attack offsets, locations an ant can attack after its next move
+        rowOffsets.clear();
+        colOffsets.clear();
+        mx = (int)Math.sqrt(attackRadius2) + 1;
+        for (int row = -mx; row <= mx; ++row) {
+            for (int col = -mx; col <= mx; ++col) {
+                boolean inRange = row * row + col * col <= attackRadius2;
+                for (Aim direction : directions) {
+                    int dRow = row - direction.getRowDelta();
+                    int dCol = col - direction.getColDelta();
+                    inRange |= dRow * dRow + dCol * dCol <= attackRadius2;
+                }
+                if (inRange) {
+                    rowOffsets.add(row);
+                    colOffsets.add(col);
                 }
             }
         }
+        attackRowOffsets = new int[rowOffsets.size()];
+        attackColOffsets = new int[colOffsets.size()];
+        for (int i = 0; i < attackRowOffsets.length; i++) {
+            attackRowOffsets[i] = rowOffsets.get(i);
+            attackColOffsets[i] = colOffsets.get(i);
+        }
+        threatCounts = new int[rows * cols];
+        supportCounts = new int[rows * cols];
     }
 
     /**
@@ -180,6 +271,27 @@ public class Ants {
         return turnTime - (int)(System.currentTimeMillis() - turnStartTime);
     }
 
+    /**
+     * Returns remaining turn time below which orders are written as soon as they are issued.
+     * 
+     * @return remaining turn time in milliseconds below which orders are written as soon as they
+     *         are issued, <code>0</code> if orders are only written when the turn is finished
+     */
+    public int getOrderFlushTime() {
+        return orderFlushTime;
+    }
+
+    /**
+     * Sets remaining turn time below which orders are written as soon as they are issued, so
+     * the orders issued so far still reach the engine if the turn is about to time out.
+     * 
+     * @param orderFlushTime remaining turn time in milliseconds, <code>0</code> to write orders
+     *            only when the turn is finished
+     */
+    public void setOrderFlushTime(int orderFlushTime) {
+        this.orderFlushTime = orderFlushTime;
+    }
+
     /**
      * Returns ilk at the specified location.
      * 
@@ -188,7 +300,18 @@ public class Ants {
      * @return ilk at the <cod>tile</code>
      */
     public Ilk getIlk(Tile tile) {
-        return map[tile.getRow()][tile.getCol()];
+        return Ilk.valueOf(map[getIndex(tile)]);
+    }
+
+    /**
+     * Returns ilk at the specified location.
+     * 
+     * @param index location index on the game map
+     * 
+     * @return ilk at the <code>index</code>
+     */
+    public Ilk getIlk(int index) {
+        return Ilk.valueOf(map[index]);
     }
 
     /**
@@ -198,7 +321,17 @@ public class Ants {
      * @param ilk ilk to be set at <code>tile</code>
      */
     public void setIlk(Tile tile, Ilk ilk) {
-        map[tile.getRow()][tile.getCol()] = ilk;
+        map[getIndex(tile)] = (byte)ilk.ordinal();
+    }
+
+    /**
+     * Sets ilk at the specified location.
+     * 
+     * @param index location index on the game map
+     * @param ilk ilk to be set at <code>index</code>
+     */
+    public void setIlk(int index, Ilk ilk) {
+        map[index] = (byte)ilk.ordinal();
     }
 
     /**
@@ -210,8 +343,94 @@ public class Ants {
      * @return ilk at the location in <code>direction</code> from <cod>tile</code>
      */
     public Ilk getIlk(Tile tile, Aim direction) {
-        Tile newTile = getTile(tile, direction);
-        return map[newTile.getRow()][newTile.getCol()];
+        return Ilk.valueOf(map[getNeighbour(getIndex(tile), direction)]);
+    }
+
+    /**
+     * Returns location index for the specified row and column.
+     * 
+     * @param row row index
+     * @param col column index
+     * 
+     * @return location index (<code>row * cols + col</code>)
+     */
+    public int getIndex(int row, int col) {
+        return row * cols + col;
+    }
+
+    /**
+     * Returns location index of the specified location.
+     * 
+     * @param tile location on the game map
+     * 
+     * @return location index of <code>tile</code>
+     */
+    public int getIndex(Tile tile) {
+        return tile.getRow() * cols + tile.getCol();
+    }
+
+    /**
+     * Returns row of the specified location index.
+     * 
+     * @param index location index on the game map
+     * 
+     * @return row of <code>index</code>
+     */
+    public int getRow(int index) {
+        return index / cols;
+    }
+
+    /**
+     * Returns column of the specified location index.
+     * 
+     * @param index location index on the game map
+     * 
+     * @return column of <code>index</code>
+     */
+    public int getCol(int index) {
+        return index % cols;
+    }
+
+    /**
+     * Returns the shared location object for the specified location index.
+     * 
+     * @param index location index on the game map
+     * 
+     * @return location at <code>index</code>
+     */
+    public Tile getTile(int index) {
+        return tiles[index];
+    }
+
+    /**
+     * Returns location index in the specified direction from the specified location index.
+     * 
+     * @param index location index on the game map
+     * @param direction direction to look up
+     * 
+     * @return location index in <code>direction</code> from <code>index</code>
+     */
+    public int getNeighbour(int index, Aim direction) {
+        return neighbours[(index << 2) + direction.ordinal()];
+    }
+
+    /**
+     * Returns the direction from a location index to one of its neighbours.
+     * 
+     * @param index location index on the game map
+     * @param neighbour location index next to <code>index</code>
+     * 
+     * @return direction from <code>index</code> to <code>neighbour</code>, or <code>null</code>
+     *         if they are not next to each other
+     */
+    public Aim getDirection(int index, int neighbour) {
+        int first = index << 2;
+        for (int i = 0; i < 4; i++) {
+            if (neighbours[first + i] == neighbour) {
+                return Aim.valueOf(i);
+            }
+        }
+        return null;
     }
 
     /**
@@ -223,15 +442,7 @@ public class Ants {
      * @return location in <code>direction</code> from <cod>tile</code>
      */
     public Tile getTile(Tile tile, Aim direction) {
-        int row = (tile.getRow() + direction.getRowDelta()) % rows;
-        if (row < 0) {
-            row += rows;
-        }
-        int col = (tile.getCol() + direction.getColDelta()) % cols;
-        if (col < 0) {
-            col += cols;
-        }
-        return new Tile(row, col);
+        return tiles[getNeighbour(getIndex(tile), direction)];
     }
 
     /**
@@ -251,7 +462,7 @@ public class Ants {
         if (col < 0) {
             col += cols;
         }
-        return new Tile(row, col);
+        return tiles[row * cols + col];
     }
 
     /**
@@ -300,12 +511,33 @@ public class Ants {
     }
 
     /**
-     * Returns all orders sent so far.
+     * Returns a list containing all dead ants location indexes of this turn.
      * 
-     * @return all orders sent so far
+     * @return a list containing all dead ants location indexes
      */
-    public Set<Order> getOrders() {
-        return orders;
+    public IntList getDeadAnts() {
+        return deadAnts;
+    }
+
+    /**
+     * Checks if an ant has been issued an order this turn.
+     * 
+     * @param index location index of the ant
+     * 
+     * @return <code>true</code> if the ant has an order, <code>false</code> otherwise
+     */
+    public boolean hasOrder(int index) {
+        return orderStamps[index] == orderTurn;
+    }
+
+    /**
+     * Forgets the orders issued so far.
+     */
+    public void clearOrders() {
+        if (++orderTurn == Integer.MAX_VALUE) {
+            Arrays.fill(orderStamps, 0);
+            orderTurn = 1;
+        }
     }
 
     /**
@@ -316,7 +548,51 @@ public class Ants {
      * @return true if the location is visible
      */
     public boolean isVisible(Tile tile) {
-        return visible[tile.getRow()][tile.getCol()];
+        return isVisible(getIndex(tile));
+    }
+
+    /**
+     * Returns true if a location is visible this turn
+     *
+     * @param index location index on the game map
+     *
+     * @return true if the location is visible
+     */
+    public boolean isVisible(int index) {
+        return (visible[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the number of locations visible this turn.
+     *
+     * @return number of visible locations
+     */
+    public int getVisibleCount() {
+        return visibleCount;
+    }
+
+    /**
+     * Returns the first location visible this turn at or after a location index. Visible
+     * locations are iterated by starting at <code>0</code> and passing the previous result plus
+     * one.
+     * 
+     * @param index location index to start from
+     * 
+     * @return location index of the next visible location, or <code>-1</code> if there is none
+     */
+    public int nextVisible(int index) {
+        int word = index >>> 6;
+        if (word >= visible.length) {
+            return -1;
+        }
+        long bits = visible[word] & (-1L << index);
+        while (bits == 0) {
+            if (++word == visible.length) {
+                return -1;
+            }
+            bits = visible[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
     }
 
     /**
@@ -335,6 +611,22 @@ public class Ants {
         return rowDelta * rowDelta + colDelta * colDelta;
     }
 
+    /**
+     * Calculates distance between two locations on the game map.
+     * 
+     * @param index1 one location index on the game map
+     * @param index2 another location index on the game map
+     * 
+     * @return distance between <code>index1</code> and <code>index2</code>
+     */
+    public int getDistance(int index1, int index2) {
+        int rowDelta = Math.abs(index1 / cols - index2 / cols);
+        int colDelta = Math.abs(index1 % cols - index2 % cols);
+        rowDelta = Math.min(rowDelta, rows - rowDelta);
+        colDelta = Math.min(colDelta, cols - colDelta);
+        return rowDelta * rowDelta + colDelta * colDelta;
+    }
+
     /**
      * Returns one or two orthogonal directions from one location to the another.
      * 
@@ -379,7 +671,7 @@ public class Ants {
      */
     public void clearMyAnts() {
         for (Tile myAnt : myAnts) {
-            map[myAnt.getRow()][myAnt.getCol()] = Ilk.LAND;
+            map[getIndex(myAnt)] = (byte)Ilk.LAND.ordinal();
         }
         myAnts.clear();
     }
@@ -389,7 +681,7 @@ public class Ants {
      */
     public void clearEnemyAnts() {
         for (Tile enemyAnt : enemyAnts) {
-            map[enemyAnt.getRow()][enemyAnt.getCol()] = Ilk.LAND;
+            map[getIndex(enemyAnt)] = (byte)Ilk.LAND.ordinal();
         }
         enemyAnts.clear();
     }
@@ -399,7 +691,7 @@ public class Ants {
      */
     public void clearFood() {
         for (Tile food : foodTiles) {
-            map[food.getRow()][food.getCol()] = Ilk.LAND;
+            map[getIndex(food)] = (byte)Ilk.LAND.ordinal();
         }
         foodTiles.clear();
     }
@@ -422,35 +714,179 @@ public class Ants {
      * Clears game state information about dead ants locations.
      */
     public void clearDeadAnts() {
-        //currently we do not have list of dead ants, so iterate over all map
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                if (map[row][col] == Ilk.DEAD) {
-                    map[row][col] = Ilk.LAND;
-                }
+        byte dead = (byte)Ilk.DEAD.ordinal();
+        for (int i = 0; i < deadAnts.size(); i++) {
+            int index = deadAnts.get(i);
+            if (map[index] == dead) {
+                map[index] = (byte)Ilk.LAND.ordinal();
             }
         }
+        deadAnts.clear();
     }
 
     /**
-     * Clears visible information
+     * Clears visible information, including the vision kept from previous turns.
      */
     public void clearVision() {
-        for (int row = 0; row < rows; ++row) {
-            for (int col = 0; col < cols; ++col) {
-                visible[row][col] = false;
-            }
-        }
+        Arrays.fill(visible, 0L);
+        Arrays.fill(visionCounts, 0);
+        visibleCount = 0;
+        Arrays.fill(visionSources, false);
+        visionSourceList.clear();
     }
 
     /**
-     * Calculates visible information
+     * Calculates visible information. Vision is kept between turns as a number of my ants seeing
+     * each location, so only ants which moved, appeared or died since the last call are applied.
      */
     public void setVision() {
+        byte myAnt = (byte)Ilk.MY_ANT.ordinal();
+        int kept = 0;
+        for (int i = 0; i < visionSourceList.size(); i++) {
+            int index = visionSourceList.get(i);
+            if (map[index] == myAnt) {
+                visionSourceList.set(kept++, index);
+            } else {
+                visionSources[index] = false;
+                updateVision(index, -1);
+            }
+        }
+        visionSourceList.truncate(kept);
         for (Tile antLoc : myAnts) {
-            for (Tile locOffset : visionOffsets) {
-                Tile newLoc = getTile(antLoc, locOffset);
-                visible[newLoc.getRow()][newLoc.getCol()] = true;
+            int index = getIndex(antLoc);
+            if (!visionSources[index]) {
+                visionSources[index] = true;
+                visionSourceList.add(index);
+                updateVision(index, 1);
+            }
+        }
+    }
+
+    /**
+     * Updates the number of ants which can attack each location in the next
+     * turn. Only the zones of the ants of the last turn and this turn are
+     * touched.
+     */
+    public void setAttackZones() {
+        for (int i = 0; i < attackSourceList.size(); i++) {
+            updateAttackZone(attackSourceList.get(i), attackSourceOwners.get(i), -1);
+        }
+        attackSourceList.clear();
+        attackSourceOwners.clear();
+        for (Tile myAnt : myAnts) {
+            addAttackSource(getIndex(myAnt), 0);
+        }
+        for (Tile enemyAnt : enemyAnts) {
+            int index = getIndex(enemyAnt);
+            addAttackSource(index, antOwners[index]);
+        }
+    }
+
+    /**
+     * Returns the number of enemy ants which can attack a location in the next
+     * turn.
+     *
+     * @param index location index
+     *
+     * @return number of enemy ants within attack radius after one move
+     */
+    public int getThreat(int index) {
+        return threatCounts[index];
+    }
+
+    /**
+     * Returns the number of my ants which can attack a location in the next
+     * turn.
+     *
+     * @param index location index
+     *
+     * @return number of my ants within attack radius after one move
+     */
+    public int getSupport(int index) {
+        return supportCounts[index];
+    }
+
+    /**
+     * Checks if an ant can attack a location in the next turn, the same way the threat and
+     * support counts do.
+     *
+     * @param ant location index of the ant
+     * @param index location index
+     *
+     * @return <code>true</code> if the location is within attack radius after one move
+     */
+    public boolean canAttack(int ant, int index) {
+        int rowDelta = Math.abs(ant / cols - index / cols);
+        int colDelta = Math.abs(ant % cols - index % cols);
+        rowDelta = Math.min(rowDelta, rows - rowDelta);
+        colDelta = Math.min(colDelta, cols - colDelta);
+        if (rowDelta > 0 && (rowDelta - 1) * (rowDelta - 1) + colDelta * colDelta <= attackRadius2) {
+            return true;
+        }
+        if (colDelta > 0 && rowDelta * rowDelta + (colDelta - 1) * (colDelta - 1) <= attackRadius2) {
+            return true;
+        }
+        return rowDelta * rowDelta + colDelta * colDelta <= attackRadius2;
+    }
+
+    private void addAttackSource(int index, int owner) {
+        attackSourceList.add(index);
+        attackSourceOwners.add(owner);
+        updateAttackZone(index, owner, 1);
+    }
+
+    private void updateAttackZone(int index, int owner, int delta) {
+        int antRow = index / cols;
+        int antCol = index % cols;
+        for (int i = 0; i < attackRowOffsets.length; i++) {
+            int row = antRow + attackRowOffsets[i];
+            if (row < 0) {
+                row += rows;
+            } else if (row >= rows) {
+                row -= rows;
+            }
+            int col = antCol + attackColOffsets[i];
+            if (col < 0) {
+                col += cols;
+            } else if (col >= cols) {
+                col -= cols;
+            }
+            int cell = row * cols + col;
+            if (owner == 0) {
+                supportCounts[cell] += delta;
+            } else {
+                threatCounts[cell] += delta;
+            }
+        }
+    }
+
+    private void updateVision(int index, int delta) {
+        int antRow = index / cols;
+        int antCol = index % cols;
+        for (int i = 0; i < visionRowOffsets.length; i++) {
+            int row = antRow + visionRowOffsets[i];
+            if (row < 0) {
+                row += rows;
+            } else if (row >= rows) {
+                row -= rows;
+            }
+            int col = antCol + visionColOffsets[i];
+            if (col < 0) {
+                col += cols;
+            } else if (col >= cols) {
+                col -= cols;
+            }
+            int cell = row * cols + col;
+            if (delta > 0) {
+                if (visionCounts[cell]++ == 0) {
+                    visible[cell >>> 6] |= 1L << cell;
+                    visibleCount++;
+                }
+            } else {
+                if (--visionCounts[cell] == 0) {
+                    visible[cell >>> 6] &= ~(1L << cell);
+                    visibleCount--;
+                }
             }
         }
     }
@@ -462,8 +898,12 @@ public class Ants {
      * @param tile location on the game map to be updated
      */
     public void update(Ilk ilk, Tile tile) {
-        map[tile.getRow()][tile.getCol()] = ilk;
+        int index = getIndex(tile);
+        map[index] = (byte)ilk.ordinal();
         switch (ilk) {
+            case DEAD:
+                deadAnts.add(index);
+            break;
             case FOOD:
                 foodTiles.add(tile);
             break;
@@ -476,6 +916,29 @@ public class Ants {
         }
     }
 
+    /**
+     * Updates game state information about ants locations, together with
+     * their owners.
+     *
+     * @param owner owner of ant, 0 for my ants
+     * @param tile location on the game map to be updated
+     */
+    public void updateAnt(int owner, Tile tile) {
+        antOwners[getIndex(tile)] = (byte)owner;
+        update(owner > 0 ? Ilk.ENEMY_ANT : Ilk.MY_ANT, tile);
+    }
+
+    /**
+     * Returns the owner of the ant on a location.
+     *
+     * @param index location index of an ant
+     *
+     * @return owner of the ant, 0 for my ants, only valid if there is an ant
+     */
+    public int getOwner(int index) {
+        return antOwners[index];
+    }
+
     /**
      * Updates game state information about hills locations.
      *
@@ -490,14 +953,30 @@ public class Ants {
     }
 
     /**
-     * Issues an order by sending it to the system output.
+     * Issues an order by adding it to the order buffer. Buffered orders are sent to the system
+     * output by {@link #finishTurn()}, or right away once the remaining turn time drops below
+     * the order flush time. Further orders for an ant which already has one are ignored.
      * 
      * @param myAnt map tile with my ant
      * @param direction direction in which to move my ant
      */
     public void issueOrder(Tile myAnt, Aim direction) {
-        Order order = new Order(myAnt, direction);
-        orders.add(order);
-        System.out.println(order);
+        int index = getIndex(myAnt);
+        if (orderStamps[index] == orderTurn) {
+            return;
+        }
+        orderStamps[index] = orderTurn;
+        orderWriter.write(myAnt.getRow(), myAnt.getCol(), direction);
+        if (orderFlushTime > 0 && getTimeRemaining() < orderFlushTime) {
+            orderWriter.flush();
+        }
+    }
+
+    /**
+     * Finishes turn by sending all buffered orders followed by <code>go</code> to the system
+     * output.
+     */
+    public void finishTurn() {
+        orderWriter.finishTurn();
     }
 }
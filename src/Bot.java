@@ -44,8 +44,7 @@ public abstract class Bot extends AbstractSystemInputParser {
         ants.clearEnemyHills();
         ants.clearFood();
         ants.clearDeadAnts();
-        ants.getOrders().clear();
-        ants.clearVision();
+        ants.clearOrders();
     }
     
     /**
@@ -53,7 +52,7 @@ public abstract class Bot extends AbstractSystemInputParser {
      */
     @Override
     public void addWater(int row, int col) {
-        ants.update(Ilk.WATER, new Tile(row, col));
+        ants.update(Ilk.WATER, ants.getTile(ants.getIndex(row, col)));
     }
     
     /**
@@ -61,7 +60,7 @@ public abstract class Bot extends AbstractSystemInputParser {
      */
     @Override
     public void addAnt(int row, int col, int owner) {
-        ants.update(owner > 0 ? Ilk.ENEMY_ANT : Ilk.MY_ANT, new Tile(row, col));
+        ants.updateAnt(owner, ants.getTile(ants.getIndex(row, col)));
     }
     
     /**
@@ -69,7 +68,7 @@ public abstract class Bot extends AbstractSystemInputParser {
      */
     @Override
     public void addFood(int row, int col) {
-        ants.update(Ilk.FOOD, new Tile(row, col));
+        ants.update(Ilk.FOOD, ants.getTile(ants.getIndex(row, col)));
     }
     
     /**
@@ -77,7 +76,7 @@ public abstract class Bot extends AbstractSystemInputParser {
      */
     @Override
     public void removeAnt(int row, int col, int owner) {
-        ants.update(Ilk.DEAD, new Tile(row, col));
+        ants.update(Ilk.DEAD, ants.getTile(ants.getIndex(row, col)));
     }
     
     /**
@@ -85,7 +84,7 @@ public abstract class Bot extends AbstractSystemInputParser {
      */
     @Override
     public void addHill(int row, int col, int owner) {
-        ants.updateHills(owner, new Tile(row, col));
+        ants.updateHills(owner, ants.getTile(ants.getIndex(row, col)));
     }
     
     /**
@@ -94,5 +93,18 @@ public abstract class Bot extends AbstractSystemInputParser {
     @Override
     public void afterUpdate() {
         ants.setVision();
+        ants.setAttackZones();
+    }
+    
+    /**
+     * Sends all orders of this turn at once.
+     */
+    @Override
+    public void finishTurn() {
+        if (ants != null) {
+            ants.finishTurn();
+        } else {
+            super.finishTurn();
+        }
     }
 }
@@ -0,0 +1,235 @@
+/**
+ * Space-time A* for one ant among others, as used by windowed cooperative A*
+ * (WHCA*). Besides the four moves the ant may wait, and it avoids the tiles
+ * other ants have reserved in a <code>ReservationTable</code> for the turn it
+ * would get there, as well as swapping places with them. In the first turn
+ * tiles with food or enemy ants cannot be entered either. Own ants may be
+ * entered like in <code>MyBot.doMoveDirection()</code>, the
+ * <code>MoveResolver</code> decides whether they move on.
+ * <br />
+ * Every turn costs the same, so the costs of a state are its turn and each
+ * state is reached first on a cheapest path. The heuristic is the Manhattan
+ * distance on the wrapped map. An ant cannot get further from its start
+ * than the depth of the reservation table, so the states only cover that
+ * window around the start.
+ *
+ * @see ReservationTable
+ */
+public class CooperativeSearch
+{
+    private static final Aim[] DIRECTIONS = Aim.values();
+
+    private final Ants game;
+    private final TileType[][] exploredTiles;
+    private final ReservationTable reservations;
+    private final int rows;
+    private final int cols;
+    private final int depth;
+
+    /**
+     * Size of the window around the start, no larger than the map
+     */
+    private final int windowRows;
+    private final int windowCols;
+    private final int windowCells;
+
+    /**
+     * Position of the start, the center of the window
+     */
+    private int startRow;
+    private int startCol;
+
+    /**
+     * Previous state of every reached state, indexed by turn * windowCells +
+     * position in the window, valid if the state has been reached in the
+     * current search
+     */
+    private final int[] parents;
+    private final SearchSpace space;
+    private final IndexedIntHeap openList;
+    private int expandedCounter;
+
+    /**
+     * Tile of the found path in every turn, starting with the current one
+     */
+    private final IntList positions;
+
+    public CooperativeSearch(Ants game, TileType[][] exploredTiles, ReservationTable reservations)
+    {
+	this.game = game;
+	this.exploredTiles = exploredTiles;
+	this.reservations = reservations;
+	rows = game.getRows();
+	cols = game.getCols();
+	depth = reservations.getDepth();
+	windowRows = Math.min(2 * depth + 1, rows);
+	windowCols = Math.min(2 * depth + 1, cols);
+	windowCells = windowRows * windowCols;
+
+	int states = (depth + 1) * windowCells;
+	parents = new int[states];
+	space = new SearchSpace(game, states);
+	openList = new IndexedIntHeap(states);
+	positions = new IntList();
+    }
+
+    /**
+     * Finds the earliest arrival at a tile.
+     *
+     * @param start
+     *            location index of the ant
+     * @param goal
+     *            location index to reach
+     * @param maxTurns
+     *            number of turns the ant may take at most, limited by the
+     *            depth of the reservation table
+     * @return <code>false</code> if the goal cannot be reached in time
+     */
+    public boolean findPath(int start, int goal, int maxTurns)
+    {
+	nextGeneration();
+	positions.clear();
+	maxTurns = Math.min(maxTurns, depth);
+	startRow = start / cols;
+	startCol = start % cols;
+
+	visit(start, start, 0, -1, goal);
+	while (!openList.isEmpty())
+	{
+	    int state = openList.poll();
+	    int turn = state / windowCells;
+	    int index = getIndex(state);
+	    expandedCounter++;
+
+	    if (index == goal && turn > 0)
+	    {
+		for (; state >= 0; state = parents[state])
+		    positions.add(getIndex(state));
+		reverse(positions);
+		return true;
+	    }
+
+	    if (turn < maxTurns)
+	    {
+		visit(index, index, turn + 1, state, goal);
+		for (Aim direction : DIRECTIONS)
+		    visit(index, game.getNeighbour(index, direction), turn + 1, state, goal);
+	    }
+	}
+	return false;
+    }
+
+    /**
+     * Returns the turn the found path arrives at the goal.
+     */
+    public int getArrivalTurn()
+    {
+	return positions.size() - 1;
+    }
+
+    /**
+     * Returns where the ant is on the found path.
+     *
+     * @param turn
+     *            number of turns from now, at most the arrival turn
+     * @return location index
+     */
+    public int getPosition(int turn)
+    {
+	return positions.get(turn);
+    }
+
+    /**
+     * Returns the first move of the found path.
+     *
+     * @return direction of the move, <code>null</code> if the ant waits
+     */
+    public Aim getFirstDirection()
+    {
+	if (positions.get(0) == positions.get(1))
+	    return null;
+	return game.getDirection(positions.get(0), positions.get(1));
+    }
+
+    /**
+     * Returns the moves of the found path without its waits.
+     */
+    public DirectionPath getMoves()
+    {
+	DirectionPath moves = new DirectionPath(positions.size());
+	for (int i = 1; i < positions.size(); i++)
+	{
+	    if (positions.get(i) != positions.get(i - 1))
+		moves.add(game.getDirection(positions.get(i - 1), positions.get(i)));
+	}
+	return moves;
+    }
+
+    /**
+     * Check how many states were expanded since the search was created.
+     *
+     * @return A counter of how many states were expanded.
+     */
+    public int getExpandedCounter()
+    {
+	return expandedCounter;
+    }
+
+    /**
+     * Opens a state unless it has been reached before or the move to it is
+     * not allowed.
+     */
+    private void visit(int from, int index, int turn, int parent, int goal)
+    {
+	int state = getState(index, turn);
+	if (space.isReached(state))
+	    return;
+	if (exploredTiles[index / cols][index % cols] == TileType.WATER)
+	    return;
+	if (turn == 1 && index != from && !game.getIlk(index).isUnoccupied() && game.getIlk(index) != Ilk.MY_ANT)
+	    return;
+	if (turn > 0 && (reservations.isReserved(index, turn) || reservations.isSwap(from, index, turn)))
+	    return;
+
+	space.reach(state);
+	parents[state] = parent;
+	openList.put(state, turn + space.getDistance(index, goal));
+    }
+
+    /**
+     * Returns the state of a tile within the window in a turn.
+     */
+    private int getState(int index, int turn)
+    {
+	int row = (index / cols - startRow + depth + rows) % rows;
+	int col = (index % cols - startCol + depth + cols) % cols;
+	return turn * windowCells + row * windowCols + col;
+    }
+
+    /**
+     * Returns the location index of the tile of a state.
+     */
+    private int getIndex(int state)
+    {
+	int position = state % windowCells;
+	int row = ((startRow - depth + position / windowCols) % rows + rows) % rows;
+	int col = ((startCol - depth + position % windowCols) % cols + cols) % cols;
+	return row * cols + col;
+    }
+
+    private void nextGeneration()
+    {
+	openList.clear();
+	space.nextGeneration();
+    }
+
+    private static void reverse(IntList list)
+    {
+	for (int i = 0, j = list.size() - 1; i < j; i++, j--)
+	{
+	    int value = list.get(i);
+	    list.set(i, list.get(j));
+	    list.set(j, value);
+	}
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * Incremental planner towards a set of long-lived goals, such as the enemy
+ * hills, after D* Lite. The search runs backwards from all goals at once and
+ * keeps its state between turns, so it works as a flow field: any number of
+ * ants follow it towards their nearest goal, and only tiles closer to the
+ * goals than the ant asking are expanded. Since all ants share the search, no
+ * heuristic towards a particular ant is used, which also makes the key
+ * modifier of D* Lite unnecessary.<br />
+ * Unexplored tiles are treated as land. When one of them turns out to be
+ * water, or a goal is added or removed, only the affected distances are
+ * repaired on the next query instead of starting over.
+ *
+ * @see PlannedRoute
+ */
+public class DStarLite
+{
+    /**
+     * Distance of tiles which cannot reach any goal.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int INFINITE = Integer.MAX_VALUE / 2;
+
+    private static final Aim[] DIRECTIONS = Aim.values();
+
+    private final Ants game;
+    private final TileType[][] exploredTiles;
+    private final int cols;
+
+    /**
+     * States for every tile whether it is a goal
+     */
+    private final boolean[] isGoal;
+    private int goalCount;
+
+    /**
+     * Distances to the nearest goal as far as the search is done
+     */
+    private final int[] g;
+
+    /**
+     * Distances to the nearest goal according to the neighbours (one step ahead)
+     */
+    private final int[] rhs;
+
+    /**
+     * Tiles whose <code>g</code> and <code>rhs</code> differ
+     */
+    private final IndexedIntHeap openList;
+
+    private int expandedCounter;
+
+    public DStarLite(Ants game, TileType[][] exploredTiles)
+    {
+	this.game = game;
+	this.exploredTiles = exploredTiles;
+	cols = game.getCols();
+
+	int cells = game.getRows() * cols;
+	g = new int[cells];
+	rhs = new int[cells];
+	for (int index = 0; index < cells; index++)
+	{
+	    g[index] = INFINITE;
+	    rhs[index] = INFINITE;
+	}
+	openList = new IndexedIntHeap(cells);
+	isGoal = new boolean[cells];
+	goalCount = 0;
+    }
+
+    /**
+     * Adds a goal. The distances are repaired by the next query.
+     *
+     * @param index
+     *            location index
+     */
+    public void addGoal(int index)
+    {
+	if (!isGoal[index])
+	{
+	    isGoal[index] = true;
+	    goalCount++;
+	    rhs[index] = 0;
+	    updateVertex(index);
+	}
+    }
+
+    /**
+     * Removes a goal, e.g. a razed hill. The distances are repaired by the
+     * next query.
+     *
+     * @param index
+     *            location index
+     */
+    public void removeGoal(int index)
+    {
+	if (isGoal[index])
+	{
+	    isGoal[index] = false;
+	    goalCount--;
+	    updateVertex(index);
+	}
+    }
+
+    public int getGoalCount()
+    {
+	return goalCount;
+    }
+
+    /**
+     * Returns the goal a shortest path leads to by following the directions.
+     *
+     * @param start
+     *            location index
+     * @return location index of the goal, <code>-1</code> if no goal can be
+     *         reached or the search ran out of time
+     */
+    public int getNearestGoal(int start)
+    {
+	int index = start;
+	while (!isGoal[index])
+	{
+	    Aim direction = getDirection(index);
+	    if (direction == null)
+		return -1;
+	    index = game.getNeighbour(index, direction);
+	}
+	return index;
+    }
+
+    /**
+     * Returns the walking distance to the nearest goal.
+     *
+     * @param start
+     *            location index
+     * @return number of steps, <code>UNREACHABLE</code> if no goal can be
+     *         reached or the search ran out of time
+     */
+    public int getDistance(int start)
+    {
+	if (!computeShortestPath(start) || g[start] >= INFINITE)
+	    return UNREACHABLE;
+	return g[start];
+    }
+
+    /**
+     * Returns the direction of the next step on a shortest path to the
+     * nearest goal.
+     *
+     * @param start
+     *            location index
+     * @return direction of the next step, <code>null</code> if the tile is a
+     *         goal, no goal can be reached or the search ran out of time
+     */
+    public Aim getDirection(int start)
+    {
+	if (isGoal[start] || getDistance(start) == UNREACHABLE)
+	    return null;
+
+	// the neighbour one step closer is consistent because it has a smaller
+	// key than start
+	for (Aim direction : DIRECTIONS)
+	{
+	    int neighbour = game.getNeighbour(start, direction);
+	    if (isPassable(neighbour) && g[neighbour] + 1 == g[start])
+		return direction;
+	}
+	return null;
+    }
+
+    /**
+     * Reports a tile which turned out to be water. The distances depending on
+     * it are repaired by the next query.
+     *
+     * @param index
+     *            location index
+     */
+    public void markWater(int index)
+    {
+	updateVertex(index);
+	for (Aim direction : DIRECTIONS)
+	    updateVertex(game.getNeighbour(index, direction));
+    }
+
+    /**
+     * Check how many tiles were expanded since the planner was created.
+     *
+     * @return A counter of how many tiles were expanded.
+     */
+    public int getExpandedCounter()
+    {
+	return expandedCounter;
+    }
+
+    /**
+     * Expands tiles until the distance of <code>start</code> is exact.
+     *
+     * @return <code>false</code> if the search ran out of time
+     */
+    private boolean computeShortestPath(int start)
+    {
+	int expanded = 0;
+	while (!openList.isEmpty()
+		&& (openList.peekKey() < Math.min(g[start], rhs[start]) || g[start] != rhs[start]))
+	{
+	    if ((++expanded & 63) == 0 && SearchSpace.isOutOfTime(game))
+		return false;
+
+	    int index = openList.poll();
+	    expandedCounter++;
+	    if (g[index] > rhs[index])
+	    {
+		// distance became shorter (or known for the first time)
+		g[index] = rhs[index];
+	    }
+	    else
+	    {
+		// distance became longer, tiles depending on this one have to
+		// look for another way
+		g[index] = INFINITE;
+		updateVertex(index);
+	    }
+
+	    for (Aim direction : DIRECTIONS)
+		updateVertex(game.getNeighbour(index, direction));
+	}
+	return true;
+    }
+
+    /**
+     * Recalculates <code>rhs</code> of a tile and puts it into the open list
+     * if it became inconsistent.
+     */
+    private void updateVertex(int index)
+    {
+	if (!isGoal[index])
+	{
+	    int distance = INFINITE;
+	    if (isPassable(index))
+	    {
+		for (Aim direction : DIRECTIONS)
+		{
+		    int neighbour = game.getNeighbour(index, direction);
+		    if (g[neighbour] + 1 < distance && isPassable(neighbour))
+			distance = g[neighbour] + 1;
+		}
+	    }
+	    rhs[index] = distance;
+	}
+
+	if (openList.contains(index))
+	    openList.remove(index);
+	if (g[index] != rhs[index])
+	    openList.put(index, Math.min(g[index], rhs[index]));
+    }
+
+    private boolean isPassable(int index)
+    {
+	return exploredTiles[index / cols][index % cols] != TileType.WATER;
+    }
+}
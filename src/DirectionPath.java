@@ -0,0 +1,160 @@
+import java.util.Arrays;
+
+/**
+ * A path stored as the directions of its steps, packed into two bits per
+ * step. Parts of a path can be taken by <code>subPath()</code> without
+ * copying, so routes can share the same steps, e.g. the remaining part of a
+ * cached path.
+ */
+public class DirectionPath
+{
+    private static final Aim[] DIRECTIONS = Aim.values();
+
+    private byte[] steps;
+    private int offset;
+    private int size;
+
+    /**
+     * States whether <code>steps</code> is used by other paths as well, so
+     * it must be copied before it is changed.
+     */
+    private boolean isShared;
+
+    public DirectionPath()
+    {
+	this(16);
+    }
+
+    /**
+     * @param capacity
+     *            number of steps which can be added without growing
+     */
+    public DirectionPath(int capacity)
+    {
+	steps = new byte[(Math.max(capacity, 1) + 3) >> 2];
+	offset = 0;
+	size = 0;
+	isShared = false;
+    }
+
+    private DirectionPath(byte[] steps, int offset, int size)
+    {
+	this.steps = steps;
+	this.offset = offset;
+	this.size = size;
+	isShared = true;
+    }
+
+    /**
+     * Creates the path along a list of tiles.
+     *
+     * @param start
+     *            location index the path starts from
+     * @param tiles
+     *            location indexes of all steps, each a neighbour of the
+     *            previous one
+     */
+    public static DirectionPath create(Ants game, int start, IntList tiles)
+    {
+	DirectionPath path = new DirectionPath(tiles.size());
+	int previous = start;
+	for (int i = 0; i < tiles.size(); i++)
+	{
+	    int next = tiles.get(i);
+	    path.add(game.getDirection(previous, next));
+	    previous = next;
+	}
+	return path;
+    }
+
+    /**
+     * Appends a step.
+     */
+    public void add(Aim direction)
+    {
+	if (isShared || ((offset + size) >> 2) == steps.length)
+	{
+	    // copy the own steps only, with room for as many again
+	    int first = offset >> 2;
+	    offset &= 3;
+	    int length = ((offset + size) >> 2) + 1;
+	    steps = Arrays.copyOfRange(steps, first, first + 2 * length);
+	    isShared = false;
+	}
+
+	int position = offset + size;
+	int shift = (position & 3) << 1;
+	steps[position >> 2] = (byte) ((steps[position >> 2] & ~(3 << shift)) | (direction.ordinal() << shift));
+	size++;
+    }
+
+    /**
+     * Removes the last step.
+     */
+    public void removeLast()
+    {
+	size--;
+    }
+
+    /**
+     * Returns the direction of a step.
+     *
+     * @param position
+     *            number of the step, starting with 0
+     */
+    public Aim get(int position)
+    {
+	position += offset;
+	return DIRECTIONS[(steps[position >> 2] >> ((position & 3) << 1)) & 3];
+    }
+
+    /**
+     * Returns the number of steps.
+     */
+    public int size()
+    {
+	return size;
+    }
+
+    /**
+     * Returns a part of this path which shares the steps with it.
+     *
+     * @param from
+     *            first step of the part
+     * @param to
+     *            step after the last one of the part
+     */
+    public DirectionPath subPath(int from, int to)
+    {
+	isShared = true;
+	return new DirectionPath(steps, offset + from, to - from);
+    }
+
+    /**
+     * Follows the path.
+     *
+     * @param start
+     *            location index the path starts from
+     * @return location index the path ends at
+     */
+    public int getEnd(Ants game, int start)
+    {
+	int index = start;
+	for (int i = 0; i < size; i++)
+	    index = game.getNeighbour(index, get(i));
+	return index;
+    }
+
+    @Override
+    public String toString()
+    {
+	StringBuilder ret = new StringBuilder();
+	for (int i = 0; i < size; i++)
+	{
+	    if (i > 0)
+		ret.append(',');
+	    ret.append(get(i).name());
+	}
+	return ret.toString();
+    }
+}
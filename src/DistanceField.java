@@ -0,0 +1,189 @@
+import java.util.Arrays;
+
+/**
+ * Walking distances to the nearest of a set of target tiles, computed by one
+ * breadth-first search from all targets at once. Besides the distance every
+ * reached tile knows its nearest target and the direction of the next step
+ * towards it. Unexplored tiles are treated as land. The arrays are reused by
+ * the next computation.
+ */
+public class DistanceField
+{
+    /**
+     * Distance of tiles which cannot reach any target.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final Aim[] DIRECTIONS = Aim.values();
+
+    private static final byte NO_DIRECTION = -1;
+
+    private final Ants game;
+    private final TileType[][] exploredTiles;
+    private final int cols;
+
+    private final int[] distances;
+    private final int[] sources;
+    private final byte[] directions;
+    private final int[] stamps;
+    private final int[] queue;
+    private int queueHead;
+    private int queueTail;
+    private int generation;
+
+    public DistanceField(Ants game, TileType[][] exploredTiles)
+    {
+	this.game = game;
+	this.exploredTiles = exploredTiles;
+	cols = game.getCols();
+
+	int cells = game.getRows() * cols;
+	distances = new int[cells];
+	sources = new int[cells];
+	directions = new byte[cells];
+	stamps = new int[cells];
+	queue = new int[cells];
+	generation = 0;
+    }
+
+    /**
+     * Removes all targets and distances.
+     */
+    public void clear()
+    {
+	queueHead = 0;
+	queueTail = 0;
+	generation++;
+	if (generation == Integer.MAX_VALUE)
+	{
+	    Arrays.fill(stamps, 0);
+	    generation = 1;
+	}
+    }
+
+    /**
+     * Adds a target. Must be called after <code>clear()</code> and before
+     * <code>compute()</code>.
+     * 
+     * @param index
+     *            location index of the target
+     */
+    public void addSource(int index)
+    {
+	if (stamps[index] != generation)
+	{
+	    stamps[index] = generation;
+	    distances[index] = 0;
+	    sources[index] = index;
+	    directions[index] = NO_DIRECTION;
+	    queue[queueTail++] = index;
+	}
+    }
+
+    /**
+     * Computes the distances of all tiles reachable from the targets.
+     */
+    public void compute()
+    {
+	compute(UNREACHABLE);
+    }
+
+    /**
+     * Computes the distances of all tiles reachable from the targets within
+     * <code>maxDistance</code> steps.
+     * 
+     * @param maxDistance
+     *            tiles further away from every target stay unreachable
+     */
+    public void compute(int maxDistance)
+    {
+	while (queueHead < queueTail)
+	{
+	    int index = queue[queueHead++];
+	    int distance = distances[index] + 1;
+	    if (distance > maxDistance)
+		break;
+
+	    for (Aim direction : DIRECTIONS)
+	    {
+		int neighbour = game.getNeighbour(index, direction);
+		if (stamps[neighbour] != generation && isPassable(neighbour))
+		{
+		    stamps[neighbour] = generation;
+		    distances[neighbour] = distance;
+		    sources[neighbour] = sources[index];
+		    directions[neighbour] = (byte) Util.getOppositeDirection(direction).ordinal();
+		    queue[queueTail++] = neighbour;
+		}
+	    }
+	}
+    }
+
+    /**
+     * Returns the number of tiles reached by the last computation, the
+     * targets included.
+     */
+    public int getReachedCount()
+    {
+	return queueTail;
+    }
+
+    /**
+     * Returns a tile reached by the last computation. The tiles are ordered
+     * by their distance.
+     * 
+     * @param i
+     *            number of the tile, less than <code>getReachedCount()</code>
+     * @return location index of the tile
+     */
+    public int getReached(int i)
+    {
+	return queue[i];
+    }
+
+    /**
+     * Returns the walking distance to the nearest target.
+     * 
+     * @param index
+     *            location index
+     * @return number of steps, <code>UNREACHABLE</code> if no target could be
+     *         reached
+     */
+    public int getDistance(int index)
+    {
+	return stamps[index] == generation ? distances[index] : UNREACHABLE;
+    }
+
+    /**
+     * Returns the nearest target.
+     * 
+     * @param index
+     *            location index
+     * @return location index of the nearest target, <code>-1</code> if no
+     *         target could be reached
+     */
+    public int getSource(int index)
+    {
+	return stamps[index] == generation ? sources[index] : -1;
+    }
+
+    /**
+     * Returns the direction of the next step towards the nearest target.
+     * 
+     * @param index
+     *            location index
+     * @return direction of the next step, <code>null</code> if no target could
+     *         be reached or the tile is a target itself
+     */
+    public Aim getDirection(int index)
+    {
+	if (stamps[index] != generation || directions[index] == NO_DIRECTION)
+	    return null;
+	return DIRECTIONS[directions[index]];
+    }
+
+    private boolean isPassable(int index)
+    {
+	return exploredTiles[index / cols][index % cols] != TileType.WATER;
+    }
+}
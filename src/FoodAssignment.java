@@ -0,0 +1,235 @@
+import java.util.Arrays;
+
+/**
+ * Assigns idle ants to food. The walking distances are found by a
+ * breadth-first search from every food up to a maximum distance, which gives
+ * a sparse graph of the ants close to each food. On this graph an auction
+ * decides which ant gets which food: each food bids for the ant worth most
+ * to it, outbidding the food it had before, until no food wants to change.
+ * Closer ants are worth more and every food prefers some ant within reach to
+ * none, so as much food as possible is collected on the shortest total way.
+ * The values are scaled such that the auction finds an optimal assignment.
+ */
+public class FoodAssignment
+{
+    private final Ants game;
+    private final DistanceField field;
+
+    /**
+     * Location indexes of the ants and food taking part
+     */
+    private final IntList ants;
+    private final IntList foods;
+
+    /**
+     * Number of the ant standing on every tile, valid if
+     * <code>antStamps</code> holds the current generation
+     */
+    private final int[] antNumbers;
+    private final int[] antStamps;
+    private int generation;
+
+    /**
+     * Ants close to each food: the edges of food f are stored from
+     * <code>edgeStarts[f]</code> to <code>edgeStarts[f + 1]</code>
+     */
+    private final IntList edgeStarts;
+    private final IntList edgeAnts;
+    private final IntList edgeDistances;
+
+    private final IntList prices;
+    private final IntList owners;
+    private final IntList assignedEdges;
+    private final IntList pending;
+
+    public FoodAssignment(Ants game, TileType[][] exploredTiles)
+    {
+	this.game = game;
+	field = new DistanceField(game, exploredTiles);
+
+	int cells = game.getRows() * game.getCols();
+	ants = new IntList();
+	foods = new IntList();
+	antNumbers = new int[cells];
+	antStamps = new int[cells];
+	generation = 0;
+	edgeStarts = new IntList();
+	edgeAnts = new IntList();
+	edgeDistances = new IntList();
+	prices = new IntList();
+	owners = new IntList();
+	assignedEdges = new IntList();
+	pending = new IntList();
+    }
+
+    /**
+     * Removes all ants and food.
+     */
+    public void clear()
+    {
+	ants.clear();
+	foods.clear();
+	generation++;
+	if (generation == Integer.MAX_VALUE)
+	{
+	    Arrays.fill(antStamps, 0);
+	    generation = 1;
+	}
+    }
+
+    /**
+     * @param index
+     *            location index of an ant without a task
+     */
+    public void addAnt(int index)
+    {
+	if (antStamps[index] != generation)
+	{
+	    antStamps[index] = generation;
+	    antNumbers[index] = ants.size();
+	    ants.add(index);
+	}
+    }
+
+    /**
+     * @param index
+     *            location index of food nobody is heading for
+     */
+    public void addFood(int index)
+    {
+	foods.add(index);
+    }
+
+    /**
+     * Assigns the ants to the food.
+     *
+     * @param maxDistance
+     *            ants further away from food are not assigned to it
+     */
+    public void solve(int maxDistance)
+    {
+	findEdges(maxDistance);
+
+	// values are multiples of scale, so bidding with increments of 1 ends
+	// within less than one unit of the best assignment
+	int scale = foods.size() + 1;
+	prices.clear();
+	owners.clear();
+	for (int ant = 0; ant < ants.size(); ant++)
+	{
+	    prices.add(0);
+	    owners.add(-1);
+	}
+	assignedEdges.clear();
+	pending.clear();
+	for (int food = 0; food < foods.size(); food++)
+	{
+	    assignedEdges.add(-1);
+	    pending.add(food);
+	}
+
+	while (!pending.isEmpty())
+	{
+	    int food = pending.get(pending.size() - 1);
+	    pending.truncate(pending.size() - 1);
+
+	    // best and second best ant, not getting any ant is worth 0
+	    int bestEdge = -1;
+	    int bestValue = 0;
+	    int secondValue = 0;
+	    for (int edge = edgeStarts.get(food); edge < edgeStarts.get(food + 1); edge++)
+	    {
+		int value = (maxDistance + 1 - edgeDistances.get(edge)) * scale - prices.get(edgeAnts.get(edge));
+		if (value > bestValue)
+		{
+		    secondValue = bestValue;
+		    bestValue = value;
+		    bestEdge = edge;
+		}
+		else
+		    if (value > secondValue)
+			secondValue = value;
+	    }
+	    if (bestEdge < 0)
+		continue;
+
+	    int ant = edgeAnts.get(bestEdge);
+	    prices.set(ant, prices.get(ant) + bestValue - secondValue + 1);
+	    if (owners.get(ant) >= 0)
+	    {
+		assignedEdges.set(owners.get(ant), -1);
+		pending.add(owners.get(ant));
+	    }
+	    owners.set(ant, food);
+	    assignedEdges.set(food, bestEdge);
+	}
+    }
+
+    /**
+     * Returns the number of food, assigned or not.
+     */
+    public int size()
+    {
+	return foods.size();
+    }
+
+    /**
+     * @param food
+     *            number of the food, in the order it was added
+     * @return location index of the food
+     */
+    public int getFood(int food)
+    {
+	return foods.get(food);
+    }
+
+    /**
+     * @param food
+     *            number of the food, in the order it was added
+     * @return location index of the ant assigned to the food, <code>-1</code>
+     *         if none
+     */
+    public int getAnt(int food)
+    {
+	int edge = assignedEdges.get(food);
+	return edge >= 0 ? ants.get(edgeAnts.get(edge)) : -1;
+    }
+
+    /**
+     * @param food
+     *            number of the food, in the order it was added
+     * @return walking distance of the assigned ant to the food
+     */
+    public int getDistance(int food)
+    {
+	return edgeDistances.get(assignedEdges.get(food));
+    }
+
+    /**
+     * Searches the ants close to every food among the tiles its search
+     * reaches, so it takes time proportional to the area around the food.
+     */
+    private void findEdges(int maxDistance)
+    {
+	edgeStarts.clear();
+	edgeAnts.clear();
+	edgeDistances.clear();
+	for (int food = 0; food < foods.size(); food++)
+	{
+	    edgeStarts.add(edgeAnts.size());
+	    field.clear();
+	    field.addSource(foods.get(food));
+	    field.compute(maxDistance);
+	    for (int i = 0; i < field.getReachedCount(); i++)
+	    {
+		int index = field.getReached(i);
+		if (antStamps[index] == generation)
+		{
+		    edgeAnts.add(antNumbers[index]);
+		    edgeDistances.add(field.getDistance(index));
+		}
+	    }
+	}
+	edgeStarts.add(edgeAnts.size());
+    }
+}
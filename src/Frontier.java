@@ -0,0 +1,121 @@
+import java.util.Arrays;
+
+/**
+ * The frontier of the explored map: passable explored tiles next to at least
+ * one unexplored tile. It is updated incrementally whenever a tile becomes
+ * explored, so it never has to be searched for.
+ */
+public class Frontier
+{
+    private static final Aim[] DIRECTIONS = Aim.values();
+
+    private final Ants game;
+    private final TileType[][] exploredTiles;
+    private final int cols;
+
+    private final IntList tiles;
+
+    /**
+     * Position of each tile in <code>tiles</code>, <code>-1</code> if it is
+     * not part of the frontier.
+     */
+    private final int[] positions;
+
+    public Frontier(Ants game, TileType[][] exploredTiles)
+    {
+	this.game = game;
+	this.exploredTiles = exploredTiles;
+	cols = game.getCols();
+
+	tiles = new IntList();
+	positions = new int[game.getRows() * cols];
+	Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Updates the frontier after a tile has been explored. Must be called once
+     * the tile is stored in <code>exploredTiles</code>.
+     * 
+     * @param index
+     *            location index of the explored tile
+     */
+    public void reveal(int index)
+    {
+	if (isPassable(index) && hasUnexploredNeighbour(index))
+	    add(index);
+
+	for (Aim direction : DIRECTIONS)
+	{
+	    int neighbour = game.getNeighbour(index, direction);
+	    if (positions[neighbour] >= 0 && !hasUnexploredNeighbour(neighbour))
+		remove(neighbour);
+	}
+    }
+
+    /**
+     * Returns the number of frontier tiles.
+     */
+    public int size()
+    {
+	return tiles.size();
+    }
+
+    /**
+     * Returns a frontier tile.
+     * 
+     * @param position
+     *            position between <code>0</code> and <code>size() - 1</code>
+     * @return location index of the frontier tile
+     */
+    public int get(int position)
+    {
+	return tiles.get(position);
+    }
+
+    /**
+     * Checks whether a tile is part of the frontier.
+     * 
+     * @param index
+     *            location index
+     */
+    public boolean contains(int index)
+    {
+	return positions[index] >= 0;
+    }
+
+    private void add(int index)
+    {
+	if (positions[index] < 0)
+	{
+	    positions[index] = tiles.size();
+	    tiles.add(index);
+	}
+    }
+
+    private void remove(int index)
+    {
+	int position = positions[index];
+	int last = tiles.get(tiles.size() - 1);
+	tiles.set(position, last);
+	positions[last] = position;
+	tiles.truncate(tiles.size() - 1);
+	positions[index] = -1;
+    }
+
+    private boolean hasUnexploredNeighbour(int index)
+    {
+	for (Aim direction : DIRECTIONS)
+	{
+	    int neighbour = game.getNeighbour(index, direction);
+	    if (exploredTiles[neighbour / cols][neighbour % cols] == null)
+		return true;
+	}
+	return false;
+    }
+
+    private boolean isPassable(int index)
+    {
+	TileType tileType = exploredTiles[index / cols][index % cols];
+	return tileType != null && tileType != TileType.WATER;
+    }
+}
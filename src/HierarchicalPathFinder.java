@@ -0,0 +1,596 @@
+
+/**
+ * Hierarchical path finding (HPA*) for long routes on large maps. The map is
+ * divided into square clusters. Wherever two neighbouring clusters are
+ * connected, an entrance is placed on both sides of the border, and the
+ * walking distances between all entrances of a cluster are computed in
+ * advance. A query searches this small abstract graph only and yields a list
+ * of waypoints, which can be refined into single steps lazily, one cluster
+ * at a time. The paths are nearly, but not always exactly, shortest.<br />
+ * Unexplored tiles are treated as land, so the graph only changes when water
+ * is found. Such changes have to be reported by <code>markWater()</code>,
+ * the affected clusters are rebuilt by <code>update()</code> or before the
+ * next query.
+ *
+ * @see HierarchicalRoute
+ */
+public class HierarchicalPathFinder implements IPathFinder
+{
+    /**
+     * Width and height of a cluster.
+     */
+    public static final int CLUSTER_SIZE = 10;
+
+    /**
+     * Openings on a border at least this wide get an entrance at both ends
+     * instead of a single one in the middle.
+     */
+    private static final int MAX_ENTRANCE_WIDTH = 6;
+
+    private static final Aim[] DIRECTIONS = Aim.values();
+
+    private final Ants game;
+    private final TileType[][] exploredTiles;
+    private final int rows;
+    private final int cols;
+    private final int clusterRows;
+    private final int clusterCols;
+
+    /**
+     * Cluster of each tile
+     */
+    private final int[] clusters;
+
+    /**
+     * Pairs of connected tiles (this cluster, eastern cluster) on the eastern
+     * border of each cluster
+     */
+    private final IntList[] eastBorders;
+
+    /**
+     * Pairs of connected tiles (this cluster, southern cluster) on the
+     * southern border of each cluster
+     */
+    private final IntList[] southBorders;
+
+    /**
+     * Entrance tiles of each cluster. A tile on two borders appears twice.
+     */
+    private final IntList[] entrances;
+
+    /**
+     * Tile on the other side of the border for each entrance
+     */
+    private final IntList[] partners;
+
+    /**
+     * Walking distances inside the cluster between all entrances, -1 if not
+     * connected
+     */
+    private final int[][] entranceDistances;
+
+    private final boolean[] dirty;
+    private final IntList dirtyClusters;
+
+    // breadth-first search inside a cluster
+    private final int[] bfsDistances;
+    private final int[] bfsParents;
+    private final SearchSpace bfsSpace;
+    private final int[] queue;
+
+    // abstract search
+    private final int[] g;
+    private final int[] parents;
+    private final SearchSpace space;
+    private final boolean[] closed;
+    private final IndexedIntHeap openList;
+
+    private final IntList startDistances;
+    private final IntList endDistances;
+    private final IntList abstractPath;
+    private final IntList path;
+    private final IntList segment;
+    private int expandedCounter;
+    private int start;
+
+    public HierarchicalPathFinder(Ants game, TileType[][] exploredTiles)
+    {
+	this.game = game;
+	this.exploredTiles = exploredTiles;
+	rows = game.getRows();
+	cols = game.getCols();
+	clusterRows = (rows + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+	clusterCols = (cols + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+
+	int cells = rows * cols;
+	clusters = new int[cells];
+	for (int index = 0; index < cells; index++)
+	    clusters[index] = (index / cols / CLUSTER_SIZE) * clusterCols + index % cols / CLUSTER_SIZE;
+
+	int clusterCount = clusterRows * clusterCols;
+	eastBorders = new IntList[clusterCount];
+	southBorders = new IntList[clusterCount];
+	entrances = new IntList[clusterCount];
+	partners = new IntList[clusterCount];
+	entranceDistances = new int[clusterCount][];
+	dirty = new boolean[clusterCount];
+	dirtyClusters = new IntList(clusterCount);
+	for (int cluster = 0; cluster < clusterCount; cluster++)
+	{
+	    eastBorders[cluster] = new IntList();
+	    southBorders[cluster] = new IntList();
+	    entrances[cluster] = new IntList();
+	    partners[cluster] = new IntList();
+	    markDirty(cluster);
+	}
+
+	bfsDistances = new int[cells];
+	bfsParents = new int[cells];
+	bfsSpace = new SearchSpace(game, cells);
+	queue = new int[cells];
+
+	g = new int[cells];
+	parents = new int[cells];
+	space = new SearchSpace(game, cells);
+	closed = new boolean[cells];
+	openList = new IndexedIntHeap(cells);
+
+	startDistances = new IntList();
+	endDistances = new IntList();
+	abstractPath = new IntList();
+	path = new IntList();
+	segment = new IntList();
+    }
+
+    /**
+     * Reports a tile which turned out to be water. Its cluster, and the
+     * neighbouring cluster if the tile lies on a border, are rebuilt before the
+     * next query.
+     *
+     * @param index
+     *            location index
+     */
+    public void markWater(int index)
+    {
+	int row = index / cols;
+	int col = index % cols;
+	int cluster = clusters[index];
+	markDirty(cluster);
+
+	if (row % CLUSTER_SIZE == 0)
+	    markDirty(getNorth(cluster));
+	if (row % CLUSTER_SIZE == CLUSTER_SIZE - 1 || row == rows - 1)
+	    markDirty(getSouth(cluster));
+	if (col % CLUSTER_SIZE == 0)
+	    markDirty(getWest(cluster));
+	if (col % CLUSTER_SIZE == CLUSTER_SIZE - 1 || col == cols - 1)
+	    markDirty(getEast(cluster));
+    }
+
+    /**
+     * Rebuilds the borders, entrances and entrance distances of all clusters
+     * changed by <code>markWater()</code>.
+     */
+    public void update()
+    {
+	if (dirtyClusters.isEmpty())
+	    return;
+
+	for (int i = 0; i < dirtyClusters.size(); i++)
+	{
+	    int cluster = dirtyClusters.get(i);
+	    buildEastBorder(cluster);
+	    buildSouthBorder(cluster);
+	    buildEastBorder(getWest(cluster));
+	    buildSouthBorder(getNorth(cluster));
+	}
+
+	for (int i = 0; i < dirtyClusters.size(); i++)
+	{
+	    int cluster = dirtyClusters.get(i);
+	    buildEntrances(cluster);
+	    dirty[cluster] = false;
+	}
+	dirtyClusters.clear();
+    }
+
+    /**
+     * Finds the waypoints of a path on the abstract graph.
+     *
+     * @param start
+     *            location index to start from
+     * @param end
+     *            location index of the target
+     * @return <code>true</code> if a path was found. Its waypoints can be
+     *         retrieved by <code>getAbstractPath()</code> until the next
+     *         search.
+     */
+    public boolean findAbstractPath(int start, int end)
+    {
+	update();
+	nextGeneration();
+	abstractPath.clear();
+	expandedCounter = 0;
+
+	int startCluster = clusters[start];
+	int endCluster = clusters[end];
+
+	// distances from start and to end inside their clusters
+	bfs(start, startCluster);
+	collectDistances(startCluster, startDistances);
+	int direct = (startCluster == endCluster && bfsSpace.isReached(end)) ? bfsDistances[end] : -1;
+	bfs(end, endCluster);
+	collectDistances(endCluster, endDistances);
+
+	visit(start, 0, -1, end);
+	while (!openList.isEmpty())
+	{
+	    int node = openList.poll();
+	    if (node == end)
+	    {
+		for (int i = end; i != -1; i = parents[i])
+		    abstractPath.add(i);
+		reverse(abstractPath);
+		return true;
+	    }
+
+	    closed[node] = true;
+	    expandedCounter++;
+
+	    int cluster = clusters[node];
+	    IntList clusterEntrances = entrances[cluster];
+	    int slot = node == start ? -1 : find(clusterEntrances, node);
+
+	    // entrances of the same cluster
+	    for (int j = 0; j < clusterEntrances.size(); j++)
+	    {
+		int distance;
+		if (slot < 0)
+		    distance = startDistances.get(j);
+		else
+		    distance = entranceDistances[cluster][slot * clusterEntrances.size() + j];
+		if (distance >= 0)
+		    visit(clusterEntrances.get(j), g[node] + distance, node, end);
+	    }
+
+	    // the target itself
+	    if (slot < 0 && direct >= 0)
+		visit(end, direct, node, end);
+	    else
+		if (slot >= 0 && cluster == endCluster && endDistances.get(slot) >= 0)
+		    visit(end, g[node] + endDistances.get(slot), node, end);
+
+	    // across the borders
+	    for (int j = 0; j < clusterEntrances.size(); j++)
+	    {
+		if (clusterEntrances.get(j) == node)
+		    visit(partners[cluster].get(j), g[node] + 1, node, end);
+	    }
+	}
+
+	// no path found
+	return false;
+    }
+
+    /**
+     * Returns the waypoints found by the last successful
+     * <code>findAbstractPath()</code>.
+     *
+     * @return Location indexes from start up to the target. Each waypoint is
+     *         either a neighbour of the previous one or lies in the same
+     *         cluster. The list is reused by the next search.
+     */
+    public IntList getAbstractPath()
+    {
+	return abstractPath;
+    }
+
+    /**
+     * Appends the steps between two consecutive waypoints.
+     *
+     * @param from
+     *            location index of a waypoint
+     * @param to
+     *            location index of the next waypoint
+     * @param steps
+     *            receives the steps after <code>from</code> up to
+     *            <code>to</code>
+     * @return <code>false</code> if the waypoints are not connected anymore
+     */
+    public boolean refine(int from, int to, IntList steps)
+    {
+	if (from == to)
+	    return true;
+	for (Aim direction : DIRECTIONS)
+	{
+	    if (game.getNeighbour(from, direction) == to)
+	    {
+		if (!isPassable(to))
+		    return false;
+		steps.add(to);
+		return true;
+	    }
+	}
+
+	update();
+	bfs(from, clusters[from]);
+	if (!bfsSpace.isReached(to))
+	    return false;
+
+	segment.clear();
+	for (int i = to; i != from; i = bfsParents[i])
+	    segment.add(i);
+	for (int i = segment.size() - 1; i >= 0; i--)
+	    steps.add(segment.get(i));
+	return true;
+    }
+
+    /**
+     * Finds the waypoints and refines all of them at once.
+     */
+    @Override
+    public boolean findPath(int start, int end)
+    {
+	this.start = start;
+	path.clear();
+	if (!findAbstractPath(start, end))
+	    return false;
+
+	for (int i = 1; i < abstractPath.size(); i++)
+	    refine(abstractPath.get(i - 1), abstractPath.get(i), path);
+	return true;
+    }
+
+    @Override
+    public IntList getPath()
+    {
+	return path;
+    }
+
+    @Override
+    public DirectionPath getDirectionPath()
+    {
+	return DirectionPath.create(game, start, path);
+    }
+
+    /**
+     * Check how many waypoints were expanded during the last search.
+     */
+    @Override
+    public int getExpandedCounter()
+    {
+	return expandedCounter;
+    }
+
+    private void markDirty(int cluster)
+    {
+	if (!dirty[cluster])
+	{
+	    dirty[cluster] = true;
+	    dirtyClusters.add(cluster);
+	}
+    }
+
+
+    private void buildEastBorder(int cluster)
+    {
+	int firstRow = cluster / clusterCols * CLUSTER_SIZE;
+	int lastCol = Math.min(cols, (cluster % clusterCols + 1) * CLUSTER_SIZE) - 1;
+	int length = Math.min(rows - firstRow, CLUSTER_SIZE);
+	buildBorder(eastBorders[cluster], firstRow * cols + lastCol, firstRow * cols + (lastCol + 1) % cols, cols,
+		length);
+    }
+
+    private void buildSouthBorder(int cluster)
+    {
+	int firstCol = cluster % clusterCols * CLUSTER_SIZE;
+	int lastRow = Math.min(rows, (cluster / clusterCols + 1) * CLUSTER_SIZE) - 1;
+	int length = Math.min(cols - firstCol, CLUSTER_SIZE);
+	buildBorder(southBorders[cluster], lastRow * cols + firstCol, (lastRow + 1) % rows * cols + firstCol, 1,
+		length);
+    }
+
+    /**
+     * Places entrances on every opening of a border.
+     *
+     * @param border
+     *            receives pairs of connected tiles
+     * @param firstA
+     *            first tile on this side
+     * @param firstB
+     *            first tile on the other side
+     * @param step
+     *            index difference between consecutive tiles along the border
+     * @param length
+     *            number of tiles along the border
+     */
+    private void buildBorder(IntList border, int firstA, int firstB, int step, int length)
+    {
+	border.clear();
+	int runStart = -1;
+	for (int i = 0; i <= length; i++)
+	{
+	    boolean open = i < length && isPassable(firstA + i * step) && isPassable(firstB + i * step);
+	    if (open && runStart < 0)
+	    {
+		runStart = i;
+	    }
+	    else
+		if (!open && runStart >= 0)
+		{
+		    int runEnd = i - 1;
+		    if (runEnd - runStart + 1 < MAX_ENTRANCE_WIDTH)
+		    {
+			int middle = (runStart + runEnd) / 2;
+			border.add(firstA + middle * step);
+			border.add(firstB + middle * step);
+		    }
+		    else
+		    {
+			border.add(firstA + runStart * step);
+			border.add(firstB + runStart * step);
+			border.add(firstA + runEnd * step);
+			border.add(firstB + runEnd * step);
+		    }
+		    runStart = -1;
+		}
+	}
+    }
+
+    private void buildEntrances(int cluster)
+    {
+	IntList clusterEntrances = entrances[cluster];
+	IntList clusterPartners = partners[cluster];
+	clusterEntrances.clear();
+	clusterPartners.clear();
+
+	addEntrances(cluster, eastBorders[cluster], 0);
+	addEntrances(cluster, southBorders[cluster], 0);
+	addEntrances(cluster, eastBorders[getWest(cluster)], 1);
+	addEntrances(cluster, southBorders[getNorth(cluster)], 1);
+
+	int count = clusterEntrances.size();
+	int[] distances = new int[count * count];
+	for (int i = 0; i < count; i++)
+	{
+	    bfs(clusterEntrances.get(i), cluster);
+	    for (int j = 0; j < count; j++)
+	    {
+		int entrance = clusterEntrances.get(j);
+		distances[i * count + j] = bfsSpace.isReached(entrance) ? bfsDistances[entrance] : -1;
+	    }
+	}
+	entranceDistances[cluster] = distances;
+    }
+
+    /**
+     * Adds the tiles on one side of a border as entrances.
+     *
+     * @param side
+     *            0 for the first, 1 for the second tile of each pair
+     */
+    private void addEntrances(int cluster, IntList border, int side)
+    {
+	for (int i = 0; i < border.size(); i += 2)
+	{
+	    entrances[cluster].add(border.get(i + side));
+	    partners[cluster].add(border.get(i + 1 - side));
+	}
+    }
+
+    /**
+     * Stores the distances of the last breadth-first search to each entrance
+     * of a cluster.
+     */
+    private void collectDistances(int cluster, IntList distances)
+    {
+	distances.clear();
+	IntList clusterEntrances = entrances[cluster];
+	for (int i = 0; i < clusterEntrances.size(); i++)
+	{
+	    int entrance = clusterEntrances.get(i);
+	    distances.add(bfsSpace.isReached(entrance) ? bfsDistances[entrance] : -1);
+	}
+    }
+
+    /**
+     * Breadth-first search which does not leave a cluster.
+     */
+    private void bfs(int start, int cluster)
+    {
+	bfsSpace.nextGeneration();
+
+	int head = 0;
+	int tail = 0;
+	bfsSpace.reach(start);
+	bfsDistances[start] = 0;
+	queue[tail++] = start;
+	while (head < tail)
+	{
+	    int index = queue[head++];
+	    for (Aim direction : DIRECTIONS)
+	    {
+		int neighbour = game.getNeighbour(index, direction);
+		if (!bfsSpace.isReached(neighbour) && clusters[neighbour] == cluster && isPassable(neighbour))
+		{
+		    bfsSpace.reach(neighbour);
+		    bfsDistances[neighbour] = bfsDistances[index] + 1;
+		    bfsParents[neighbour] = index;
+		    queue[tail++] = neighbour;
+		}
+	    }
+	}
+    }
+
+    /**
+     * Opens a waypoint or lowers its costs if a cheaper way to it was found.
+     */
+    private void visit(int index, int costs, int parent, int end)
+    {
+	if (!space.isReached(index))
+	{
+	    space.reach(index);
+	    closed[index] = false;
+	}
+	else
+	    if (closed[index] || costs >= g[index])
+		return;
+
+	g[index] = costs;
+	parents[index] = parent;
+	openList.put(index, costs + space.getDistance(index, end));
+    }
+
+    private boolean isPassable(int index)
+    {
+	return exploredTiles[index / cols][index % cols] != TileType.WATER;
+    }
+
+    private int getNorth(int cluster)
+    {
+	return (cluster + (clusterRows - 1) * clusterCols) % (clusterRows * clusterCols);
+    }
+
+    private int getSouth(int cluster)
+    {
+	return (cluster + clusterCols) % (clusterRows * clusterCols);
+    }
+
+    private int getWest(int cluster)
+    {
+	int col = cluster % clusterCols;
+	return cluster - col + (col + clusterCols - 1) % clusterCols;
+    }
+
+    private int getEast(int cluster)
+    {
+	int col = cluster % clusterCols;
+	return cluster - col + (col + 1) % clusterCols;
+    }
+
+    private void nextGeneration()
+    {
+	openList.clear();
+	space.nextGeneration();
+    }
+
+    private static int find(IntList list, int value)
+    {
+	for (int i = 0; i < list.size(); i++)
+	{
+	    if (list.get(i) == value)
+		return i;
+	}
+	return -1;
+    }
+
+    private static void reverse(IntList list)
+    {
+	for (int i = 0, j = list.size() - 1; i < j; i++, j--)
+	{
+	    int value = list.get(i);
+	    list.set(i, list.get(j));
+	    list.set(j, value);
+	}
+    }
+}
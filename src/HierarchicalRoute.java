@@ -0,0 +1,131 @@
+import java.util.logging.Logger;
+
+/**
+ * Hierarchical Route plans long routes on the abstract graph of a
+ * <code>HierarchicalPathFinder</code> and refines them lazily: the steps to
+ * the next waypoint are only computed once the ant has reached the previous
+ * one. If a part of the route has been blocked by water in the meantime, the
+ * rest is planned again.
+ *
+ * @see HierarchicalPathFinder
+ */
+public class HierarchicalRoute extends AbstractRoute
+{
+    private HierarchicalPathFinder pathFinder;
+
+    /**
+     * Waypoints from start to end
+     */
+    private IntList waypoints;
+
+    /**
+     * Position of the next waypoint to refine
+     */
+    private int nextWaypoint;
+
+    private IntList steps;
+
+    /**
+     * @see HierarchicalRoute
+     */
+    public HierarchicalRoute(Ants game, Tile start, Tile end, boolean isFoodRoute,
+	    HierarchicalPathFinder pathFinder, Logger log)
+    {
+	super.game = game;
+	super.start = start;
+	super.current = start;
+	super.end = end;
+	super.isFoodRoute = isFoodRoute;
+	super.log = log;
+
+	super.counter = 0;
+	super.isFinished = false;
+
+	this.pathFinder = pathFinder;
+	waypoints = new IntList();
+	steps = new IntList();
+    }
+
+    public boolean findRoute()
+    {
+	boolean ret = plan(start);
+	if (ret)
+	{
+	    path = new DirectionPath();
+	    refineNextWaypoint();
+	}
+	else
+	{
+	    path = null;
+	}
+
+	String str = (ret) ? "possible via " + waypoints.size() + " waypoints" : "impossible";
+	log.info("hierarchical path from " + start.getRow() + ", " + start.getCol() + " to " + end.getRow() + ", "
+		+ end.getCol() + " is " + str + " (" + pathFinder.getExpandedCounter() + " waypoints expanded)");
+
+	return ret;
+    }
+
+    @Override
+    public void update()
+    {
+	current = game.getTile(current, path.get(counter));
+	counter++;
+
+	if (counter >= path.size())
+	    refineNextWaypoint();
+	if (counter >= path.size())
+	    isFinished = true;
+    }
+
+    /**
+     * Finds the waypoints from a tile to the end of the route.
+     */
+    private boolean plan(Tile from)
+    {
+	boolean ret = pathFinder.findAbstractPath(game.getIndex(from), game.getIndex(end));
+	waypoints.clear();
+	if (ret)
+	{
+	    IntList abstractPath = pathFinder.getAbstractPath();
+	    for (int i = 0; i < abstractPath.size(); i++)
+		waypoints.add(abstractPath.get(i));
+	}
+	nextWaypoint = 1;
+	return ret;
+    }
+
+    /**
+     * Appends the steps up to the next waypoint to the path.
+     */
+    private void refineNextWaypoint()
+    {
+	boolean isPlannedAgain = false;
+	while (counter >= path.size() && nextWaypoint < waypoints.size())
+	{
+	    steps.clear();
+	    int index = game.getIndex(current);
+	    if (pathFinder.refine(index, waypoints.get(nextWaypoint), steps))
+	    {
+		for (int i = 0; i < steps.size(); i++)
+		{
+		    path.add(game.getDirection(index, steps.get(i)));
+		    index = steps.get(i);
+		}
+		nextWaypoint++;
+
+		// cut off last step if foodRoute
+		if (isFoodRoute && nextWaypoint == waypoints.size() && path.size() > counter)
+		    path.removeLast();
+	    }
+	    else
+	    {
+		log.info("waypoint " + Util.tilePositionAsString(game.getTile(waypoints.get(nextWaypoint)))
+			+ " is blocked, planning again");
+		if (isPlannedAgain || !plan(current))
+		    break;
+		isPlannedAgain = true;
+	    }
+	}
+    }
+}
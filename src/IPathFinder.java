@@ -0,0 +1,37 @@
+public interface IPathFinder
+{
+    /**
+     * Find the shortest path from <code>start</code> to <code>end</code>.
+     * 
+     * @param start
+     *            location index to start from
+     * @param end
+     *            location index of the target
+     * @return <code>true</code> if a path was found. It can be retrieved by
+     *         <code>getPath()</code> until the next search.
+     */
+    public boolean findPath(int start, int end);
+
+    /**
+     * Returns the path found by the last successful search.
+     * 
+     * @return Location indexes from the first step after start up to the
+     *         target. The list is reused by the next search.
+     */
+    public IntList getPath();
+
+    /**
+     * Returns the path found by the last successful search as directions.
+     * 
+     * @return Directions of all steps from start up to the target. The steps
+     *         may be shared with other paths.
+     */
+    public DirectionPath getDirectionPath();
+
+    /**
+     * Check how many tiles were expanded during the last search.
+     * 
+     * @return A counter of how many tiles were expanded.
+     */
+    public int getExpandedCounter();
+}
@@ -24,6 +24,35 @@ public interface IRoute
      */
     public boolean findRoute();
 
+    /**
+     * Get the number of moves until the route is finished, as far as it is
+     * known yet.
+     * 
+     * @return Number of remaining moves.
+     */
+    public int getRemainingMoves();
+
+    /**
+     * Looks ahead on the route.
+     * 
+     * @param moves
+     *            Number of moves from the current position, at most
+     *            <code>getRemainingMoves()</code>.
+     * @return Location index the ant will be at after these moves.
+     */
+    public int getPosition(int moves);
+
+    /**
+     * Replaces the next moves by a detour, e.g. around other ants, which
+     * leads to the same tile.
+     * 
+     * @param steps
+     *            Moves of the detour.
+     * @param moves
+     *            Number of moves of the route which are replaced.
+     */
+    public void detour(DirectionPath steps, int moves);
+
     // Getters
     public Tile getStart();
 
@@ -20,6 +20,19 @@ public enum Ilk {
     /** Enemy ant tile. */
     ENEMY_ANT;
     
+    private static final Ilk[] values = values();
+    
+    /**
+     * Returns ilk with the specified ordinal, as stored in the byte map of {@link Ants}.
+     * 
+     * @param ordinal ordinal of the ilk
+     * 
+     * @return ilk with the specified ordinal
+     */
+    public static Ilk valueOf(int ordinal) {
+        return values[ordinal];
+    }
+    
     /**
      * Checks if this type of tile is passable, which means it is not a water tile.
      * 
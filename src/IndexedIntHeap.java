@@ -0,0 +1,189 @@
+/**
+ * Represents a binary min-heap of location indexes ordered by an <code>int</code> key, with
+ * decrease-key support. Clearing is O(1), so one heap can be reused for many searches.
+ */
+public class IndexedIntHeap {
+    private final int heap[];
+
+    private final int keys[];
+
+    private final int positions[];
+
+    private int size;
+
+    /**
+     * Creates new {@link IndexedIntHeap} object.
+     *
+     * @param capacity number of distinct location indexes, which range from <code>0</code> to
+     *            <code>capacity - 1</code>
+     */
+    public IndexedIntHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new int[capacity];
+        positions = new int[capacity];
+    }
+
+    /**
+     * Removes all location indexes from this heap.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Checks if this heap is empty.
+     *
+     * @return <code>true</code> if this heap is empty, <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns number of location indexes in this heap.
+     *
+     * @return number of location indexes in this heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if a location index is in this heap.
+     *
+     * @param index location index
+     *
+     * @return <code>true</code> if <code>index</code> is in this heap, <code>false</code>
+     *         otherwise
+     */
+    public boolean contains(int index) {
+        int position = positions[index];
+        return position < size && heap[position] == index;
+    }
+
+    /**
+     * Returns key of a location index in this heap.
+     *
+     * @param index location index which is in this heap
+     *
+     * @return key of <code>index</code>
+     */
+    public int getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Adds a location index to this heap, or changes its key if it is already in this heap.
+     *
+     * @param index location index
+     * @param key key of <code>index</code>
+     */
+    public void put(int index, int key) {
+        if (contains(index)) {
+            int oldKey = keys[index];
+            keys[index] = key;
+            if (key < oldKey) {
+                siftUp(positions[index]);
+            } else if (key > oldKey) {
+                siftDown(positions[index]);
+            }
+        } else {
+            keys[index] = key;
+            heap[size] = index;
+            positions[index] = size;
+            siftUp(size++);
+        }
+    }
+
+    /**
+     * Returns key of the location index with the smallest key.
+     *
+     * @return smallest key in this heap, which must not be empty
+     */
+    public int peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Returns the location index with the smallest key without removing it.
+     *
+     * @return location index with the smallest key, this heap must not be empty
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Removes the location index with the smallest key.
+     *
+     * @return location index with the smallest key, this heap must not be empty
+     */
+    public int poll() {
+        int top = heap[0];
+        size--;
+        if (size > 0) {
+            move(heap[size], 0);
+            siftDown(0);
+        }
+        positions[top] = Integer.MAX_VALUE;
+        return top;
+    }
+
+    /**
+     * Removes a location index from this heap.
+     *
+     * @param index location index which is in this heap
+     */
+    public void remove(int index) {
+        int position = positions[index];
+        size--;
+        if (position < size) {
+            int last = heap[size];
+            move(last, position);
+            siftUp(position);
+            siftDown(positions[last]);
+        }
+        positions[index] = Integer.MAX_VALUE;
+    }
+
+    private void siftUp(int position) {
+        int index = heap[position];
+        int key = keys[index];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, position);
+            position = parentPosition;
+        }
+        move(index, position);
+    }
+
+    private void siftDown(int position) {
+        int index = heap[position];
+        int key = keys[index];
+        int half = size >>> 1;
+        while (position < half) {
+            int childPosition = 2 * position + 1;
+            int child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+            if (rightPosition < size && keys[heap[rightPosition]] < keys[child]) {
+                childPosition = rightPosition;
+                child = heap[childPosition];
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, position);
+            position = childPosition;
+        }
+        move(index, position);
+    }
+
+    private void move(int index, int position) {
+        heap[position] = index;
+        positions[index] = position;
+    }
+}
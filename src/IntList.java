@@ -0,0 +1,93 @@
+import java.util.Arrays;
+
+/**
+ * Represents a growable list of primitive <code>int</code> values, used for location indexes.
+ */
+public class IntList {
+    private int values[];
+
+    private int size;
+
+    /**
+     * Creates new {@link IntList} object.
+     */
+    public IntList() {
+        this(16);
+    }
+
+    /**
+     * Creates new {@link IntList} object.
+     *
+     * @param capacity initial capacity
+     */
+    public IntList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Appends a value to the end of this list.
+     *
+     * @param value value to be appended
+     */
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Returns value at the specified position.
+     *
+     * @param position position in this list
+     *
+     * @return value at <code>position</code>
+     */
+    public int get(int position) {
+        return values[position];
+    }
+
+    /**
+     * Replaces value at the specified position.
+     *
+     * @param position position in this list
+     * @param value value to be stored at <code>position</code>
+     */
+    public void set(int position, int value) {
+        values[position] = value;
+    }
+
+    /**
+     * Returns number of values in this list.
+     *
+     * @return number of values in this list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if this list is empty.
+     *
+     * @return <code>true</code> if this list contains no values, <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Shrinks this list to the specified number of values.
+     *
+     * @param size new number of values, not larger than the current one
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Removes all values from this list, keeping its capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * Jump Point Search for the 4-connected wrapped game map. Since every passable
+ * tile costs the same, among equally short paths only those are considered
+ * which move horizontally as early as possible. So vertical runs may only
+ * turn horizontally where a tile beside the previous one is blocked. Straight
+ * runs are skipped by jumping until such a turn becomes necessary, which
+ * expands far fewer tiles than A* on open maps while finding paths of the same
+ * length.
+ * 
+ * @see RouteCache
+ */
+public class JumpPointSearch implements IPathFinder
+{
+    private static final int NO_DIRECTION = -1;
+
+    private static final Aim[] DIRECTIONS = Aim.values();
+
+    private final Ants game;
+    private final TileType[][] exploredTiles;
+    private final int rows;
+    private final int cols;
+
+    private final int[] g;
+    private final int[] parents;
+    private final byte[] directions;
+    private final SearchSpace space;
+    private final boolean[] closed;
+    private final IndexedIntHeap openList;
+    private final IntList path;
+    private int expandedCounter;
+    private int start;
+
+    /**
+     * Tighter heuristic if set
+     */
+    private Landmarks landmarks;
+    private int end;
+
+    /**
+     * Number of steps made by the last successful jump.
+     */
+    private int jumpLength;
+
+    public JumpPointSearch(Ants game, TileType[][] exploredTiles)
+    {
+	this.game = game;
+	this.exploredTiles = exploredTiles;
+	rows = game.getRows();
+	cols = game.getCols();
+
+	int cells = rows * cols;
+	g = new int[cells];
+	parents = new int[cells];
+	directions = new byte[cells];
+	space = new SearchSpace(game, cells);
+	closed = new boolean[cells];
+	openList = new IndexedIntHeap(cells);
+	path = new IntList();
+    }
+
+    @Override
+    public boolean findPath(int start, int end)
+    {
+	nextGeneration();
+	path.clear();
+	expandedCounter = 0;
+	this.start = start;
+	this.end = end;
+
+	visit(start, 0, -1, NO_DIRECTION);
+
+	while (!openList.isEmpty())
+	{
+	    if ((expandedCounter & 63) == 0 && SearchSpace.isOutOfTime(game))
+		break;
+
+	    int index = openList.poll();
+
+	    // if target is reached, fill in the tiles between the jump points
+	    if (index == end)
+	    {
+		buildPath(start);
+		return true;
+	    }
+
+	    closed[index] = true;
+	    expandedCounter++;
+
+	    int direction = directions[index];
+	    if (direction == NO_DIRECTION)
+	    {
+		for (Aim aim : DIRECTIONS)
+		    jump(index, aim);
+	    }
+	    else
+	    {
+		Aim aim = DIRECTIONS[direction];
+		jump(index, aim);
+		if (isHorizontal(aim))
+		{
+		    jump(index, Aim.NORTH);
+		    jump(index, Aim.SOUTH);
+		}
+		else
+		{
+		    Aim behind = Util.getOppositeDirection(aim);
+		    for (Aim side : DIRECTIONS)
+		    {
+			if (isHorizontal(side) && isForced(index, behind, side))
+			    jump(index, side);
+		    }
+		}
+	    }
+	}
+
+	// no path found
+	return false;
+    }
+
+    @Override
+    public IntList getPath()
+    {
+	return path;
+    }
+
+    @Override
+    public DirectionPath getDirectionPath()
+    {
+	return DirectionPath.create(game, start, path);
+    }
+
+    @Override
+    public int getExpandedCounter()
+    {
+	return expandedCounter;
+    }
+
+    /**
+     * Uses landmark distances in addition to the Manhattan distance as
+     * heuristic.
+     * 
+     * @param landmarks
+     *            landmarks, <code>null</code> for the Manhattan distance only
+     */
+    public void setLandmarks(Landmarks landmarks)
+    {
+	this.landmarks = landmarks;
+    }
+
+    /**
+     * Jumps from a jump point in a direction and opens the next jump point, if
+     * there is one.
+     */
+    private void jump(int index, Aim aim)
+    {
+	int jumpPoint = isHorizontal(aim) ? jumpHorizontal(index, aim) : jumpVertical(index, aim);
+	if (jumpPoint >= 0)
+	    visit(jumpPoint, g[index] + jumpLength * AStar.STEP_COSTS, index, aim.ordinal());
+    }
+
+    /**
+     * Moves horizontally until the target is reached or a vertical jump from
+     * the current tile finds a jump point.
+     * 
+     * @return the jump point or <code>-1</code> if there is none
+     */
+    private int jumpHorizontal(int index, Aim aim)
+    {
+	int current = index;
+	for (int steps = 1; steps < cols; steps++)
+	{
+	    current = game.getNeighbour(current, aim);
+	    if (!isPassable(current))
+		return -1;
+	    if (current == end || jumpVertical(current, Aim.NORTH) >= 0 || jumpVertical(current, Aim.SOUTH) >= 0)
+	    {
+		jumpLength = steps;
+		return current;
+	    }
+	}
+	return -1;
+    }
+
+    /**
+     * Moves vertically until the target is reached or a horizontal move is
+     * forced.
+     * 
+     * @return the jump point or <code>-1</code> if there is none
+     */
+    private int jumpVertical(int index, Aim aim)
+    {
+	Aim behind = Util.getOppositeDirection(aim);
+	int current = index;
+	for (int steps = 1; steps < rows; steps++)
+	{
+	    current = game.getNeighbour(current, aim);
+	    if (!isPassable(current))
+		return -1;
+	    if (current == end || isForced(current, behind, Aim.EAST) || isForced(current, behind, Aim.WEST))
+	    {
+		jumpLength = steps;
+		return current;
+	    }
+	}
+	return -1;
+    }
+
+    /**
+     * Checks whether a vertical run has to turn horizontally at a tile, which is
+     * the case if the tile beside it is open but the one beside the previous
+     * tile is not.
+     */
+    private boolean isForced(int index, Aim behind, Aim side)
+    {
+	return isPassable(game.getNeighbour(index, side))
+		&& !isPassable(game.getNeighbour(game.getNeighbour(index, behind), side));
+    }
+
+    private boolean isPassable(int index)
+    {
+	return exploredTiles[index / cols][index % cols] != TileType.WATER;
+    }
+
+    private static boolean isHorizontal(Aim aim)
+    {
+	return aim == Aim.EAST || aim == Aim.WEST;
+    }
+
+    /**
+     * Calculates heuristic (Manhattan or landmark) distance on the wrapped map.
+     */
+    private int calculateH(int src, int dest)
+    {
+	int distance = space.getDistance(src, dest);
+	if (landmarks != null)
+	    distance = Math.max(distance, landmarks.getLowerBound(src, dest));
+	return distance * AStar.STEP_COSTS;
+    }
+
+    /**
+     * Opens a jump point or lowers its costs if a cheaper way to it was found.
+     */
+    private void visit(int index, int costs, int parent, int direction)
+    {
+	if (!space.isReached(index))
+	{
+	    space.reach(index);
+	    closed[index] = false;
+	}
+	else if (closed[index] || costs >= g[index])
+	{
+	    return;
+	}
+
+	g[index] = costs;
+	parents[index] = parent;
+	directions[index] = (byte) direction;
+	openList.put(index, costs + calculateH(index, end));
+    }
+
+    /**
+     * Builds the path from target to start by walking back each jump.
+     */
+    private void buildPath(int start)
+    {
+	for (int i = end; i != start; i = parents[i])
+	{
+	    Aim back = Util.getOppositeDirection(DIRECTIONS[directions[i]]);
+	    for (int tile = i; tile != parents[i]; tile = game.getNeighbour(tile, back))
+		path.add(tile);
+	}
+	for (int i = 0, j = path.size() - 1; i < j; i++, j--)
+	{
+	    int value = path.get(i);
+	    path.set(i, path.get(j));
+	    path.set(j, value);
+	}
+    }
+
+    private void nextGeneration()
+    {
+	openList.clear();
+	space.nextGeneration();
+    }
+}
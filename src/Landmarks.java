@@ -0,0 +1,194 @@
+import java.util.Arrays;
+
+/**
+ * Landmark (ALT) heuristic. For a few landmark tiles the walking distances to
+ * every tile are stored. By the triangle inequality the distance between two
+ * tiles is at least the difference of their distances to any landmark, which
+ * is a much tighter estimate than the Manhattan distance once water is known.
+ * <br />
+ * Unexplored tiles are treated as land. Water found later only makes walking
+ * distances longer, so outdated tables still give admissible estimates; they
+ * are refreshed by <code>update()</code> a few at a time.
+ */
+public class Landmarks
+{
+    /**
+     * Distance of tiles which cannot reach a landmark.
+     */
+    private static final int UNREACHABLE = -1;
+
+    private static final Aim[] DIRECTIONS = Aim.values();
+
+    private final Ants game;
+    private final TileType[][] exploredTiles;
+    private final int rows;
+    private final int cols;
+
+    private final int[] landmarks;
+    private final int[][] distances;
+
+    /**
+     * Water version each table was computed for
+     */
+    private final int[] versions;
+    private int landmarkCount;
+    private int waterVersion;
+
+    private final int[] queue;
+
+    /**
+     * @param capacity
+     *            maximum number of landmarks
+     */
+    public Landmarks(Ants game, TileType[][] exploredTiles, int capacity)
+    {
+	this.game = game;
+	this.exploredTiles = exploredTiles;
+	rows = game.getRows();
+	cols = game.getCols();
+
+	landmarks = new int[capacity];
+	distances = new int[capacity][];
+	versions = new int[capacity];
+	landmarkCount = 0;
+	waterVersion = 0;
+	queue = new int[rows * cols];
+    }
+
+    /**
+     * Adds a landmark and computes its distance table.
+     *
+     * @param index
+     *            location index of the landmark
+     * @return <code>false</code> if there is no room for another landmark or
+     *         it is already one
+     */
+    public boolean addLandmark(int index)
+    {
+	if (landmarkCount == landmarks.length)
+	    return false;
+	for (int i = 0; i < landmarkCount; i++)
+	{
+	    if (landmarks[i] == index)
+		return false;
+	}
+
+	landmarks[landmarkCount] = index;
+	distances[landmarkCount] = new int[rows * cols];
+	compute(landmarkCount);
+	landmarkCount++;
+	return true;
+    }
+
+    /**
+     * Adds landmarks spread evenly over the map, which is wrapped, so they are
+     * its corners and the positions symmetric to them.
+     *
+     * @param landmarkRows
+     *            number of landmark rows
+     * @param landmarkCols
+     *            number of landmark columns
+     */
+    public void addGrid(int landmarkRows, int landmarkCols)
+    {
+	for (int i = 0; i < landmarkRows; i++)
+	{
+	    for (int j = 0; j < landmarkCols; j++)
+		addLandmark(game.getIndex(i * rows / landmarkRows, j * cols / landmarkCols));
+	}
+    }
+
+    public int getLandmarkCount()
+    {
+	return landmarkCount;
+    }
+
+    /**
+     * Reports a tile which turned out to be water. All tables become outdated.
+     *
+     * @param index
+     *            location index
+     */
+    public void markWater(int index)
+    {
+	waterVersion++;
+    }
+
+    /**
+     * Recomputes the most outdated tables.
+     *
+     * @param maxTables
+     *            maximum number of tables to compute
+     */
+    public void update(int maxTables)
+    {
+	for (int n = 0; n < maxTables; n++)
+	{
+	    int oldest = -1;
+	    for (int i = 0; i < landmarkCount; i++)
+	    {
+		if (versions[i] != waterVersion && (oldest < 0 || versions[i] < versions[oldest]))
+		    oldest = i;
+	    }
+	    if (oldest < 0)
+		return;
+	    compute(oldest);
+	}
+    }
+
+    /**
+     * Calculates a lower bound of the walking distance between two tiles.
+     *
+     * @param index
+     *            location index
+     * @param goal
+     *            location index
+     * @return number of steps the walking distance is at least long
+     */
+    public int getLowerBound(int index, int goal)
+    {
+	int bound = 0;
+	for (int i = 0; i < landmarkCount; i++)
+	{
+	    int[] table = distances[i];
+	    int toIndex = table[index];
+	    int toGoal = table[goal];
+	    if (toIndex != UNREACHABLE && toGoal != UNREACHABLE)
+	    {
+		int difference = toIndex > toGoal ? toIndex - toGoal : toGoal - toIndex;
+		if (difference > bound)
+		    bound = difference;
+	    }
+	}
+	return bound;
+    }
+
+    /**
+     * Breadth-first search from a landmark.
+     */
+    private void compute(int landmark)
+    {
+	int[] table = distances[landmark];
+	Arrays.fill(table, UNREACHABLE);
+	versions[landmark] = waterVersion;
+
+	int head = 0;
+	int tail = 0;
+	table[landmarks[landmark]] = 0;
+	queue[tail++] = landmarks[landmark];
+	while (head < tail)
+	{
+	    int index = queue[head++];
+	    int distance = table[index] + 1;
+	    for (Aim direction : DIRECTIONS)
+	    {
+		int neighbour = game.getNeighbour(index, direction);
+		if (table[neighbour] == UNREACHABLE && exploredTiles[neighbour / cols][neighbour % cols] != TileType.WATER)
+		{
+		    table[neighbour] = distance;
+		    queue[tail++] = neighbour;
+		}
+	    }
+	}
+    }
+}
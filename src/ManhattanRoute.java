@@ -1,20 +1,28 @@
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Random;
 import java.util.logging.Logger;
 
 /**
  * ManhattanRoute is a direct route from one <code>Tile</code> to another. Since
  * for a given route of n rows and k cols there are (n+k)!/n!/k! different
  * direct ways it is always likely to find one. Even if some of the tiles on the
- * way are not passable.
+ * way are not passable. Instead of enumerating them, the number of passable
+ * direct ways from every tile of the bounding rectangle is counted, which
+ * decides in O(width * height) whether one exists and allows to choose one
+ * uniformly at random.
  * 
  * @author Philip
  * 
  */
 public class ManhattanRoute extends AbstractRoute
 {
-    private List<List<Tile>> paths;
+    private static final Random random = new Random();
+
+    /**
+     * Number of direct ways from each tile of the rectangle to the end,
+     * reused by all routes.
+     */
+    private static double[] pathCounts = new double[0];
+
     private boolean isGreedy;
 
     private Aim AimHor;
@@ -42,7 +50,6 @@ public class ManhattanRoute extends AbstractRoute
 
     public boolean findRoute()
     {
-	// TODO make use of teleportation on edges of map
 	int numVert = end.getRow() - start.getRow();
 	int numHor = end.getCol() - start.getCol();
 
@@ -52,8 +59,8 @@ public class ManhattanRoute extends AbstractRoute
 	numVert = Math.abs(numVert);
 	numHor = Math.abs(numHor);
 
-	int numHor2 = game.getRows() - numVert;
-	int numVert2 = game.getCols() - numHor;
+	int numHor2 = game.getCols() - numHor;
+	int numVert2 = game.getRows() - numVert;
 
 	if (numHor2 < numHor)
 	{
@@ -70,82 +77,89 @@ public class ManhattanRoute extends AbstractRoute
 	numVert = Math.min(numVert, game.getRows() - numVert);
 	numHor = Math.min(numHor, game.getCols() - numHor);
 
-	List<Tile> startPath = new LinkedList<Tile>();
-	paths = new LinkedList<List<Tile>>();
-	try
-	{
-	    recFindAllDirectPaths(start, 0, 0, numHor, numVert, startPath);
-	}
-	catch (GreedyConditionMetException e)
-	{
-	    log.info("path found...search stopped");
-	}
-	finally
-	{
-	    // at least one path found
-	    if (paths.size() > 0)
-	    {
-		// choose one by random
-		Collections.shuffle(paths);
-		path = paths.get(0);
-
-		// cut off last step if it is a foodRoute
-		if (isFoodRoute && path.size() > 1)
-		    path.remove(path.size() - 1);
-
-		log.info("found direct path of length " + path.size() + ": " + Util.printPath(game, start, path));
-	    }
-	    // no path found
-	    else
-	    {
-		path = null;
-	    }
-	}
+	countDirectPaths(numHor, numVert);
 
-	return (path != null);
-    }
-    private void recFindAllDirectPaths(Tile tile, int numHorizontal, int numVertical, int limitHorizontal,
-	    int limitVertical, List<Tile> path) throws GreedyConditionMetException
-    {
-	if (numHorizontal == limitHorizontal && numVertical == limitVertical)
+	// at least one path found
+	if (pathCounts[0] > 0)
 	{
-	    paths.add(path);
-	    if (isGreedy)
-		throw new GreedyConditionMetException();
-	}
-	else
-	{
-	    if (numHorizontal < limitHorizontal)
+	    path = new DirectionPath(numHor + numVert);
+	    int h = 0;
+	    int v = 0;
+	    while (h < numHor || v < numVert)
 	    {
-		LinkedList<Tile> newPath = new LinkedList<Tile>(path);
-		Tile nextTile = game.getTile(tile, AimHor);
-		if (exploredTiles[nextTile.getRow()][nextTile.getCol()] != TileType.WATER)
+		// greedy takes the first way, otherwise choose one by random
+		boolean goHorizontal;
+		if (h == numHor)
+		    goHorizontal = false;
+		else if (v == numVert)
+		    goHorizontal = true;
+		else if (isGreedy)
+		    goHorizontal = pathCounts[v * (numHor + 1) + h + 1] > 0;
+		else
+		    goHorizontal = random.nextDouble() * pathCounts[v * (numHor + 1) + h] < pathCounts[v
+			    * (numHor + 1) + h + 1];
+
+		if (goHorizontal)
 		{
-		    newPath.add(nextTile);
-		    recFindAllDirectPaths(nextTile, numHorizontal + 1, numVertical, limitHorizontal, limitVertical,
-			    newPath);
+		    path.add(AimHor);
+		    h++;
 		}
-
-	    }
-
-	    if (numVertical < limitVertical)
-	    {
-		LinkedList<Tile> newPath = new LinkedList<Tile>(path);
-		Tile nextTile = game.getTile(tile, AimVert);
-		if (exploredTiles[nextTile.getRow()][nextTile.getCol()] != TileType.WATER)
+		else
 		{
-		    newPath.add(nextTile);
-		    recFindAllDirectPaths(nextTile, numHorizontal, numVertical + 1, limitHorizontal, limitVertical,
-			    newPath);
+		    path.add(AimVert);
+		    v++;
 		}
-
 	    }
 
+	    // cut off last step if it is a foodRoute
+	    if (isFoodRoute && path.size() > 1)
+		path.removeLast();
+
+	    log.info("found direct path of length " + path.size() + ": " + path);
+	}
+	// no path found
+	else
+	{
+	    path = null;
 	}
 
+	return (path != null);
     }
 
-    private class GreedyConditionMetException extends Exception
+    /**
+     * Counts the direct ways to the end from every tile of the rectangle
+     * spanned by start and end, going backwards from the end. Tile (h, v) is
+     * <code>h</code> steps in <code>AimHor</code> and <code>v</code> steps in
+     * <code>AimVert</code> away from start and its count is stored at
+     * <code>v * (limitHorizontal + 1) + h</code>. Counts are kept as
+     * <code>double</code> since they grow binomially.
+     */
+    private void countDirectPaths(int limitHorizontal, int limitVertical)
     {
+	int width = limitHorizontal + 1;
+	int size = width * (limitVertical + 1);
+	if (pathCounts.length < size)
+	    pathCounts = new double[size];
+
+	int rowStart = game.getIndex(end);
+	for (int v = limitVertical; v >= 0; v--)
+	{
+	    int index = rowStart;
+	    for (int h = limitHorizontal; h >= 0; h--)
+	    {
+		// the start itself is never blocked
+		double count;
+		if ((v > 0 || h > 0) && exploredTiles[game.getRow(index)][game.getCol(index)] == TileType.WATER)
+		    count = 0;
+		else if (v == limitVertical && h == limitHorizontal)
+		    count = 1;
+		else
+		    count = (h < limitHorizontal ? pathCounts[v * width + h + 1] : 0)
+			    + (v < limitVertical ? pathCounts[(v + 1) * width + h] : 0);
+		pathCounts[v * width + h] = count;
+		index = game.getNeighbour(index, Util.getOppositeDirection(AimHor));
+	    }
+	    rowStart = game.getNeighbour(rowStart, Util.getOppositeDirection(AimVert));
+	}
     }
 }
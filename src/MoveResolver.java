@@ -0,0 +1,235 @@
+import java.util.Arrays;
+
+/**
+ * Decides the moves of all own ants together at the end of a turn, or of the
+ * ants which asked so far if the turn is about to time out. During the turn
+ * every ant asks for its moves in order of preference, and it may ask for a
+ * tile another own ant is standing on. <code>resolve()</code> then gives
+ * every ant its most preferred move which does not collide with the others. Since the engine moves all ants at once, ants in a line move on
+ * together like a train, two ants may swap places and ants in a cycle move
+ * round. If an ant cannot leave its tile, the ant heading for that tile falls
+ * back to its next choice or stays as well, and so on down the line. Every
+ * ant falls back at most once per choice, so resolving takes linear time.
+ */
+public class MoveResolver
+{
+    /**
+     * Number of moves an ant may ask for
+     */
+    private static final int MAX_CHOICES = 4;
+
+    private final Ants game;
+
+    /**
+     * Location index of every ant which asked for a move, in the order they
+     * asked
+     */
+    private final IntList ants;
+
+    /**
+     * Tiles each ant asked for, indexed by ant number * MAX_CHOICES + choice
+     */
+    private final int[] choices;
+    private final int[] choiceCounts;
+    private final int[] nextChoices;
+
+    /**
+     * Tile each ant ends up on
+     */
+    private final int[] targets;
+
+    /**
+     * Number of the ant standing on every tile, valid if
+     * <code>antStamps</code> holds the current generation
+     */
+    private final int[] antNumbers;
+    private final int[] antStamps;
+
+    /**
+     * Number of the ant ending up on every tile, valid if
+     * <code>claimStamps</code> holds the current generation
+     */
+    private final int[] claims;
+    private final int[] claimStamps;
+    private int generation;
+
+    /**
+     * Ants which have to choose (again)
+     */
+    private final IntList pending;
+
+    public MoveResolver(Ants game)
+    {
+	this.game = game;
+
+	int cells = game.getRows() * game.getCols();
+	ants = new IntList();
+	choices = new int[cells * MAX_CHOICES];
+	choiceCounts = new int[cells];
+	nextChoices = new int[cells];
+	targets = new int[cells];
+	antNumbers = new int[cells];
+	antStamps = new int[cells];
+	claims = new int[cells];
+	claimStamps = new int[cells];
+	generation = 1;
+	pending = new IntList();
+    }
+
+    /**
+     * Removes all moves asked for.
+     */
+    public void clear()
+    {
+	ants.clear();
+	generation++;
+	if (generation == Integer.MAX_VALUE)
+	{
+	    Arrays.fill(antStamps, 0);
+	    Arrays.fill(claimStamps, 0);
+	    generation = 1;
+	}
+    }
+
+    /**
+     * Asks for a move. Moves asked for the same ant before are preferred.
+     *
+     * @param index
+     *            location index of the ant
+     * @param direction
+     *            direction of the move
+     */
+    public void addMove(int index, Aim direction)
+    {
+	int ant;
+	if (antStamps[index] == generation)
+	{
+	    ant = antNumbers[index];
+	}
+	else
+	{
+	    ant = ants.size();
+	    ants.add(index);
+	    antStamps[index] = generation;
+	    antNumbers[index] = ant;
+	    choiceCounts[ant] = 0;
+	}
+
+	int neighbour = game.getNeighbour(index, direction);
+	for (int i = 0; i < choiceCounts[ant]; i++)
+	{
+	    if (choices[ant * MAX_CHOICES + i] == neighbour)
+		return;
+	}
+	if (choiceCounts[ant] < MAX_CHOICES)
+	    choices[ant * MAX_CHOICES + choiceCounts[ant]++] = neighbour;
+    }
+
+    /**
+     * Decides the moves of all ants which asked for one. Own ants which did
+     * not ask stay where they are.
+     */
+    public void resolve()
+    {
+	pending.clear();
+	for (int ant = 0; ant < ants.size(); ant++)
+	{
+	    nextChoices[ant] = 0;
+	    pending.add(ant);
+	    while (!pending.isEmpty())
+	    {
+		int next = pending.get(pending.size() - 1);
+		pending.truncate(pending.size() - 1);
+		choose(next);
+	    }
+	}
+    }
+
+    /**
+     * Returns the number of ants which asked for a move.
+     */
+    public int size()
+    {
+	return ants.size();
+    }
+
+    /**
+     * @param ant
+     *            number of the ant, in the order they asked
+     * @return location index of the ant
+     */
+    public int getAnt(int ant)
+    {
+	return ants.get(ant);
+    }
+
+    /**
+     * @param ant
+     *            number of the ant, in the order they asked
+     * @return direction of the most preferred move, <code>null</code> if the
+     *         ant did not ask for any move
+     */
+    public Aim getFirstDirection(int ant)
+    {
+	if (choiceCounts[ant] == 0)
+	    return null;
+	return game.getDirection(ants.get(ant), choices[ant * MAX_CHOICES]);
+    }
+
+    /**
+     * @param ant
+     *            number of the ant, in the order they asked
+     * @return direction of the move decided by <code>resolve()</code>,
+     *         <code>null</code> if the ant stays
+     */
+    public Aim getDirection(int ant)
+    {
+	if (targets[ant] == ants.get(ant))
+	    return null;
+	return game.getDirection(ants.get(ant), targets[ant]);
+    }
+
+    /**
+     * Takes the next choice of an ant which is still free, or lets it stay.
+     */
+    private void choose(int ant)
+    {
+	while (nextChoices[ant] < choiceCounts[ant])
+	{
+	    int tile = choices[ant * MAX_CHOICES + nextChoices[ant]++];
+	    if (isFree(tile))
+	    {
+		claim(tile, ant);
+		return;
+	    }
+	}
+
+	// the ants heading for this tile have to choose again
+	claim(ants.get(ant), ant);
+    }
+
+    private void claim(int tile, int ant)
+    {
+	if (claimStamps[tile] == generation && claims[tile] != ant)
+	    pending.add(claims[tile]);
+	claimStamps[tile] = generation;
+	claims[tile] = ant;
+	targets[ant] = tile;
+    }
+
+    /**
+     * Checks if a tile is passable and nobody else ends up on it as far as
+     * known. Own ants which did not ask for a move stay, ants which did may
+     * still leave.
+     */
+    private boolean isFree(int tile)
+    {
+	if (claimStamps[tile] == generation)
+	    return false;
+
+	Ilk ilk = game.getIlk(tile);
+	if (ilk == Ilk.MY_ANT)
+	    return antStamps[tile] == generation;
+	return ilk.isUnoccupied();
+    }
+}
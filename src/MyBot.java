@@ -1,15 +1,9 @@
 import java.io.IOException;
 import java.lang.management.MemoryUsage;
 import java.text.DecimalFormat;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
-import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.logging.ConsoleHandler;
@@ -43,6 +37,51 @@ import java.util.logging.Logger;
  */
 public class MyBot extends Bot
 {
+    /**
+     * Ants further away from food (in steps) do not go for it.
+     */
+    private static final int MAX_FOOD_DISTANCE = 20;
+
+    /**
+     * Number of paths kept by the route cache.
+     */
+    private static final int ROUTE_CACHE_SIZE = 256;
+
+    /**
+     * Targets at least this far away (in steps, ignoring water) are reached
+     * by hierarchical routes.
+     */
+    private static final int HIERARCHICAL_DISTANCE = 3 * HierarchicalPathFinder.CLUSTER_SIZE;
+
+    /**
+     * Landmarks are spread over the map in this many rows and columns.
+     */
+    private static final int LANDMARK_ROWS = 2;
+    private static final int LANDMARK_COLS = 4;
+
+    /**
+     * Maximum number of own hills used as additional landmarks.
+     */
+    private static final int MAX_HILL_LANDMARKS = 4;
+
+    /**
+     * Number of outdated landmark tables computed again per turn.
+     */
+    private static final int LANDMARK_UPDATES_PER_TURN = 2;
+
+    /**
+     * Number of moves ants on a route look ahead. A blocked ant looks for a
+     * way around the other ants which leads back to its route within this
+     * number of moves.
+     */
+    private static final int COOPERATIVE_WINDOW = 8;
+
+    /**
+     * Number of turns tiles are reserved for. A detour may take twice as long
+     * as the part of the route it replaces.
+     */
+    private static final int RESERVATION_DEPTH = 2 * COOPERATIVE_WINDOW;
+
     /**
      * Main method executed by the game engine for starting the bot.
      * 
@@ -94,11 +133,20 @@ public class MyBot extends Bot
     private Ants game;
 
     /**
-     * List of all new moves for the ants
-     * Key = Location to move to
-     * Value = Moving Ant
+     * All new moves for the ants, by location to move to and by moving ant
+     */
+    private OrderLedger orders;
+
+    /**
+     * Moves asked for this turn, issued as orders by
+     * <code>resolveMoves()</code>
+     */
+    private MoveResolver moveResolver;
+
+    /**
+     * Own ants with their ids and tasks, matched from turn to turn
      */
-    private Map<Tile, Tile> orders = new HashMap<Tile, Tile>();
+    private AntRegistry antRegistry;
 
     /**
      * List of seen Tiles. Used to keep track of the map.
@@ -107,14 +155,14 @@ public class MyBot extends Bot
     private TileType[][] exploredTiles;
 
     /**
-     * List of visible tiles.
+     * Number of tiles we have not explored yet
      */
-    private Set<Tile> visibleTiles;
+    private int unseenCount;
 
     /**
-     * Set of titles we are not explored yet
+     * Explored tiles next to tiles we have not explored yet
      */
-    private Set<Tile> unseenTiles;
+    private Frontier frontier;
 
     /**
      * Set of enemy hills tiles
@@ -122,40 +170,100 @@ public class MyBot extends Bot
     private Set<Tile> enemyHills = new HashSet<Tile>();
 
     /**
-     * Map of calculated AStarRoutes
+     * Incremental planner towards all enemy hills, shared by all attacking
+     * ants as a flow field
      */
-    private Map<Tile, IRoute> calculatedRoutes;
+    private DStarLite hillPlanner;
 
     /**
-     * Food tiles which are targets.<br />
-     * Key = ant (must be updated after move)<br />
-     * Value = food
+     * A* search used by the route cache
      */
-    private HashMap<Tile, Tile> foodTargets;
+    private AStar pathFinder;
 
     /**
-     * Enemy hill tiles which are targets.<br />
-     * Key = ant (must be updated after move)<br />
-     * Value = food
+     * Jump Point Search used by the route cache
      */
-    private HashMap<Tile, Tile> hillTargets;
+    private JumpPointSearch jumpPointSearch;
 
-    private List<HashMap<Tile, Tile>> targetsList;
+    /**
+     * Paths found so far, shared by all <code>AStarRoute</code>s
+     */
+    private RouteCache routeCache;
 
-    private TreeSet<Tile> sortedAnts;
+    /**
+     * Hierarchical search shared by all <code>HierarchicalRoute</code>s
+     */
+    private HierarchicalPathFinder hierarchicalPathFinder;
+
+    /**
+     * Landmark heuristic used by A* and Jump Point Search
+     */
+    private Landmarks landmarks;
 
-    private ArrayList<Tile> collectedFoods;
+    /**
+     * Tiles ants on a route will stand on during the next turns
+     */
+    private ReservationTable reservations;
+
+    /**
+     * Space-time search for ants whose route is blocked by other ants
+     */
+    private CooperativeSearch cooperativeSearch;
 
-    private Set<Tile> myPerceivedAnts;
+    /**
+     * States whether indirect routes use Jump Point Search instead of A*.
+     */
+    private boolean useJumpPointSearch = true;
 
-    private List<Tile> casualties;
+    /**
+     * Assigns ants without orders to the food nobody is heading for
+     */
+    private FoodAssignment foodAssignment;
+
+    /**
+     * Walking distances to the nearest frontier tile, updated every turn
+     */
+    private DistanceField exploreField;
+
+    /**
+     * Walking distances to the nearest idle ant, updated every turn
+     */
+    private DistanceField explorerField;
+
+    /**
+     * Nearest frontier tile claimed by each idle ant, indexed by the location
+     * index of the ant. -1 = no frontier tile is closer to this ant than to
+     * any other
+     */
+    private int[] exploreTargets;
+
+    /**
+     * All ants bucketed by position and owner, rebuilt every turn
+     */
+    private AntGrid antGrid;
+
+    /**
+     * Result of <code>getEnemyAntsInRange()</code>
+     */
+    private IntList enemiesInRange;
+
+    /**
+     * Enemy ants are looked for within this squared distance of a tile they
+     * may attack in the next turn
+     */
+    private int threatRadius2;
+
+    /**
+     * Number of ants of every enemy, used by <code>getEnemyThreat()</code>
+     */
+    private int[] enemyCounts;
+
+    private TreeSet<Tile> sortedAnts;
 
     private boolean turnTwoInited;
 
     private DecimalFormat df;
 
-    private Map<Tile, Ant> ants;
-
     /**
      * Constructor init basic things
      */
@@ -168,17 +276,8 @@ public class MyBot extends Bot
 	isMapFullyExplored = false;
 	turnTwoInited = false;
 
-	ants = new HashMap<Tile, Ant>();
-	targetsList = new LinkedList<HashMap<Tile, Tile>>();
-	foodTargets = new HashMap<Tile, Tile>();
-	hillTargets = new HashMap<Tile, Tile>();
-
-	collectedFoods = new ArrayList<Tile>();
-	myPerceivedAnts = new HashSet<Tile>();
-	casualties = new ArrayList<Tile>();
-
-	targetsList.add(foodTargets);
-	targetsList.add(hillTargets);
+	// apply update lines while they are still arriving
+	setStreaming(true);
 
 	df = new DecimalFormat(",##0");
 
@@ -207,90 +306,28 @@ public class MyBot extends Bot
 
     private void attackEnemyHills()
     {
-	if (isOwnArmyStronger(true, 2))
+	if (isOwnArmyStronger(true, 2) && enemyHills.size() > 0)
 	{
-	    List<Route> hillRoutes = new ArrayList<Route>();
-	    for (Tile enemyHill : enemyHills)
+	    for (Tile ant : sortedAnts)
 	    {
-		for (Tile ant : sortedAnts)
+		resolveMovesIfLate();
+		if (isIdle(ant))
 		{
-		    if (!hasAntOrder(ant))
+		    // follow the planner towards the nearest hill, which is only
+		    // repaired when water is found or hills change
+		    IRoute route = new PlannedRoute(game, ant, false, hillPlanner, log);
+
+		    // way found
+		    if (route.findRoute())
 		    {
-			// try direct way (Manhattan)
-			IRoute route = new ManhattanRoute(game, ant, enemyHill, false, true, exploredTiles, log);
-			boolean hasDirectPath = route.findRoute();
-
-			// direct way found
-			if (hasDirectPath)
-			{
-			    calculatedRoutes.put(ant, route);
-			    hillTargets.put(ant, enemyHill);
-			    executeStoredRoute(ant, hillTargets, null);
-			}
-
-			// no direct way found, try indirect (A*) instead
-			else
-			{
-			    log.info("no direct path found from " + Util.tilePositionAsString(route.getStart())
-				    + " to "
-				    + Util.tilePositionAsString(route.getEnd()) + ". Trying indirect path (A*)..");
-			    route = new AStarRoute(game, ant, enemyHill, false, exploredTiles, log);
-
-			    // indirect way found
-			    if (route.findRoute())
-			    {
-				calculatedRoutes.put(ant, route);
-				hillTargets.put(ant, enemyHill);
-				executeStoredRoute(ant, hillTargets, null);
-			    }
-			    // no indirect way found either
-			    else
-			    {
-			    }
-			}
-			//
-			// int distance = game.getDistance(ant, enemyHill);
-			//
-			// Route route = new Route(ant, enemyHill, distance);
-			// hillRoutes.add(route);
-			// log.info("attacking enemy hill");
+			antRegistry.setTask(antRegistry.get(ant), AntStatus.RAZING, route);
+			executeStoredRoute(antRegistry.get(ant));
 		    }
 		}
 	    }
-	    Collections.sort(hillRoutes);
-	    for (Route route : hillRoutes)
-	    {
-		doMoveLocation(route.getStart(), route.getEnd());
-	    }
 	}
     }
 
-    /**
-     * Calculates which ants have died after the last turn and lists them. This
-     * is done by comparing a list of perceived ants with the real list of ants.
-     */
-    private void calculateCasulties()
-    {
-	if (myPerceivedAnts != null)
-	{
-	    log.info("perceived: " + myPerceivedAnts.size() + "; real " + game.getMyAnts().size());
-
-	    for (Tile ant : myPerceivedAnts)
-	    {
-		if (!game.getMyAnts().contains(ant))
-		{
-		    log.info("dead ant at " + Util.tilePositionAsString(ant));
-		    casualties.add(ant);
-		}
-
-	    }
-
-	    myPerceivedAnts.clear();
-
-	}
-
-    }
-
     /**
      * Calculates Distance between two tiles. Same as in <code>Ants()</code> but
      * not squared.
@@ -307,24 +344,68 @@ public class MyBot extends Bot
 	return rowDelta + colDelta;
     }
 
-    private void calculateNewAnts()
+    /**
+     * Checks if an ant may ask for a move onto a tile: the tile is passable,
+     * no other ant is heading for it, it is not blocked and enemy ants do not
+     * outnumber the ant there.
+     * 
+     * @param from
+     *            location index of the ant
+     * @param to
+     *            location index the ant moves onto
+     */
+    private boolean canMove(int from, int to)
     {
-	for (Tile antPosition : game.getMyAnts())
-	{
-	    if (!ants.containsValue(antPosition))
-	    {
-		ants.put(antPosition, new Ant(antPosition, log));
-	    }
-	}
+	Ilk ilk = game.getIlk(to);
+	return (ilk.isUnoccupied() || ilk == Ilk.MY_ANT) && !orders.isTaken(to) && !isSuicidal(from, to);
+    }
+
+    /**
+     * Creates an indirect route. Far targets are reached by a hierarchical
+     * route, the others by a route which is taken from the route cache or
+     * found by Jump Point Search or A* depending on
+     * <code>useJumpPointSearch</code>.
+     */
+    private IRoute createIndirectRoute(Tile ant, Tile target, boolean isFoodRoute)
+    {
+	if (calculateDistance(ant, target) >= HIERARCHICAL_DISTANCE)
+	    return new HierarchicalRoute(game, ant, target, isFoodRoute, hierarchicalPathFinder, log);
+	return new AStarRoute(game, ant, target, isFoodRoute, routeCache, log);
+    }
+
+    /**
+     * Asks for another move of an ant, which it falls back to if the ant in
+     * front does not move on. An ant without a move yet takes it as its first
+     * one. The move is only asked for if <code>canMove()</code> allows it.
+     * 
+     * @param antLoc
+     *            Location of the ant
+     * @param direction
+     *            Direction we want to move the ant
+     * @param isMoving
+     *            If the ant has a move already
+     * @return If the ant has a move now
+     */
+    private boolean doAlternativeMove(Tile antLoc, Aim direction, boolean isMoving)
+    {
+	if (!isMoving)
+	    return doMoveDirection(antLoc, direction);
 
+	int index = game.getIndex(antLoc);
+	if (canMove(index, game.getNeighbour(index, direction)))
+	    moveResolver.addMove(index, direction);
+	return true;
     }
 
     /**
      * Checks if move is valid for an ant
      * 
-     * Prevent ants from moving onto other ants
+     * Prevent ants from moving onto enemy ants and food
      * Prevent 2 ants from moving to the same destination
+     * Prevent ants from moving where enemy ants outnumber them
      * Track information about where all our ants are going
+     * Moving onto own ants is allowed if they move on as well, which is
+     * decided by <code>resolveMoves()</code> at the end of the turn
      * 
      * @param antLoc
      *            Location of the ant
@@ -334,35 +415,13 @@ public class MyBot extends Bot
      */
     private boolean doMoveDirection(Tile antLoc, Aim direction)
     {
-	Tile newLoc = game.getTile(antLoc, direction);
-	// int loopCounter = 0;
-	// int closestEnemyDistance = getClosestEnemyDistance(antLoc);
-	// int closestEnemyDistance2 = getClosestEnemyDistance(newLoc);
-	//
-	// if (!isOwnArmyStronger(true))
-	// {
-	// if (closestEnemyDistance > -1 || closestEnemyDistance2 > -1)
-	// // log.info(closestEnemyDistance + ", " +
-	// // closestEnemyDistance2);
-	//
-	// if (closestEnemyDistance2 < closestEnemyDistance)
-	// {
-	// // log.info("Gefahr bei " + antLoc.getRow() + ", " +
-	// // antLoc.getCol());
-	// return false;
-	// }
-	//
-	// }
-
-	// Track all moves, prevent collisions
-	if (game.getIlk(newLoc).isUnoccupied() && !orders.containsKey(newLoc))
+	int newIndex = game.getNeighbour(game.getIndex(antLoc), direction);
+	// Track all moves, prevent collisions and fights we would lose
+	if (canMove(game.getIndex(antLoc), newIndex))
 	{
-	    game.issueOrder(antLoc, direction);
-	    Ant ant = ants.get(antLoc);
-	    ants.remove(antLoc);
-	    ants.put(newLoc, ant);
-	    orders.put(newLoc, antLoc);
-	    myPerceivedAnts.add(newLoc);
+	    moveResolver.addMove(game.getIndex(antLoc), direction);
+	    reservations.reserve(newIndex, 1, game.getIndex(antLoc));
+	    orders.add(game.getIndex(antLoc), newIndex);
 	    return true;
 	}
 	else
@@ -371,30 +430,6 @@ public class MyBot extends Bot
 	}
     }
 
-    /**
-     * Check if an ant already is on the way to the destination
-     * 
-     * @param antLoc
-     *            Location of the ant
-     * @param destLoc
-     *            Location of the destination
-     * @return If the route is still free
-     */
-    private boolean doMoveLocation(Tile antLoc, Tile destLoc)
-    {
-	// Track targets to prevent 2 ants to the same location
-	List<Aim> directions = game.getDirections(antLoc, destLoc);
-	Collections.shuffle(directions);
-	for (Aim direction : directions)
-	{
-	    if (doMoveDirection(antLoc, direction))
-	    {
-		return true;
-	    }
-	}
-	return false;
-    }
-
     /**
      * For every ant check every direction in fixed order (N, E, S, W) and move
      * it if the tile is passable.
@@ -411,11 +446,8 @@ public class MyBot extends Bot
 	// update info about visible tiles
 	updateVisibleTiles();
 
-	// welcome new ants
-	calculateNewAnts();
-
-	// list casualties
-	calculateCasulties();
+	// welcome new ants and list casualties
+	updateAnts();
 
 	// track explored tiles (if map is not fully explored yet)
 	if (!isMapFullyExplored)
@@ -423,18 +455,22 @@ public class MyBot extends Bot
 
 	// check if there are calculatedRoutes for every ant
 	executeStoredRoutes();
+	resolveMovesIfLate();
 
 	// check if there is any food visible
 	findFood();
+	resolveMovesIfLate();
 
 	// add new hills to set
 	findEnemyHills();
 
 	// attack hills
 	attackEnemyHills();
+	resolveMovesIfLate();
 
 	// explore unseen areas
 	exploreMap();
+	resolveMovesIfLate();
 
 	// prevent stepping on own hill
 	preventSteppingOnOwnHill();
@@ -446,227 +482,184 @@ public class MyBot extends Bot
 	// // // if (currentTurn % (game.getTurns() / 10) == 0)
 	// logExploredMap();
 
+	// issue the remaining orders
+	resolveMoves();
+
 	// add infos about ants without orders
 	trackUnemployedAnts();
 
-	// update target lists (collected food etc.)
-	updateTargetLists();
-
-	log.info("# ants " + myPerceivedAnts.size() + ", " + game.getMyAnts().size());
+	log.info("# ants " + antRegistry.size() + ", " + game.getMyAnts().size());
+	log.info("route cache: " + routeCache.getHits() + " hits, " + routeCache.getMisses() + " misses");
 	log.info("------------end of turn #" + currentTurn + "-------------\n");
     }
 
-    private void executeStoredRoute(Tile ant, HashMap<Tile, Tile> targetMap, ArrayList<Tile> toBeDeleted)
+    /**
+     * Initializes the game state and everything depending on the map size
+     * during the load time.
+     */
+    @Override
+    public void setup(int loadTime, int turnTime, int rows, int cols, int turns, int viewRadius2,
+	    int attackRadius2, int spawnRadius2)
     {
-	// log.info("ant at" + Util.tilePositionAsString(ant));
-	if (calculatedRoutes.containsKey(ant) && targetMap.containsKey(ant) && game.getMyAnts().contains(ant))
+	super.setup(loadTime, turnTime, rows, cols, turns, viewRadius2, attackRadius2, spawnRadius2);
+	initSetup();
+    }
+
+    /**
+     * Moves an ant one step along the route of its task. The task is given up
+     * if the route is blocked for good, e.g. by water found on the way after
+     * it was planned, or its food has been eaten.
+     */
+    private void executeStoredRoute(Ant ant)
+    {
+	Tile tile = ant.getPosition();
+	IRoute route = ant.getRoute();
+	Aim direction = route.getDirection();
+	if (direction == null || game.getIlk(tile, direction) == Ilk.WATER)
 	{
-	    IRoute route = calculatedRoutes.get(ant);
-	    // if (game.getFoodTiles().contains(aStarRoute.getEnd()))
+	    log.info("ant #" + ant.getId() + " at " + Util.tilePositionAsString(tile) + " has no way to "
+		    + Util.tilePositionAsString(route.getEnd()) + " anymore");
+	    antRegistry.clearTask(ant);
+	}
+	else
+	    if (route.isFoodRoute() && !game.getFoodTiles().contains(route.getEnd()))
 	    {
-		Aim direction = route.getDirection();
-		if (direction != null)
+		log.info("protest from " + Util.tilePositionAsString(tile) + " : food at "
+			+ Util.tilePositionAsString(route.getEnd())
+			+ " has been eaten already");
+		antRegistry.clearTask(ant);
+	    }
+	    else
+	    {
+		// the route is updated in resolveMoves()
+		direction = moveAlongRoute(tile, route);
+		ant.setRouteDirection(direction);
+		if (direction == null && route.isFoodRoute())
 		{
-		    if (route.isFoodRoute())
-		    {
-			if (game.getFoodTiles().contains(route.getEnd()))
-			{
-			    if (doMoveDirection(ant, route.getDirection()))
-			    {
-				log.info("moving ant from " + Util.tilePositionAsString(ant) + " to "
-					+ game.getTile(ant, direction));
-				route.update();
-				if (route.isFinished())
-				{
-				    collectedFoods.add(ant);
-				    // if (toBeDeleted != null)
-				    // toBeDeleted.add(route.getEnd());
-				    // else
-				    // targetMap.remove(route.getEnd());
-				    log.info("finished foodroute to "
-					    + Util.tilePositionAsString(route.getEnd()));
-				    calculatedRoutes.put(ant, null);
-				    calculatedRoutes.remove(ant);
-				}
-				else
-				{
-				    log.info("foodroute not finished..updateding maps");
-				    Tile newKey = game.getTile(ant, direction);
-				    calculatedRoutes.put(newKey, route);
-				    calculatedRoutes.remove(ant);
-				    targetMap.put(newKey, route.getEnd());
-				    targetMap.remove(ant);
-				    // log.info("finished updateding; contains old: "
-				    // + targetMap.containsKey(ant)
-				    // + ", contains new: " +
-				    // targetMap.containsKey(newKey) +
-				    // " # in targetMap "
-				    // + targetMap.size());
-				}
-
-			    }
-			    else
-			    {
-				orders.put(ant, null);
-				log.info("ant at " + Util.tilePositionAsString(ant) + " not moving, no changes on maps");
-			    }
-			}
-			else
-			{
-			    log.info("protest from " + Util.tilePositionAsString(ant) + " : food at "
-				    + Util.tilePositionAsString(route.getEnd())
-				    + " has been eaten already");
-			    collectedFoods.add(ant);
-			    // targetMap.remove(route.getEnd());
-			    calculatedRoutes.put(ant, null);
-			    calculatedRoutes.remove(ant);
-			}
-		    }
-		    else
-		    {
-			if (doMoveDirection(ant, route.getDirection()))
-			{
-			    // log.info("got instructions from aStarRoute...moving out");
-			    route.update();
-			    if (route.isFinished())
-			    {
-				if (toBeDeleted != null)
-				    toBeDeleted.add(ant);
-				else
-				    targetMap.remove(ant);
-				log.info("finished route to "
-					+ Util.tilePositionAsString(route.getEnd()));
-				calculatedRoutes.put(ant, null);
-				calculatedRoutes.remove(ant);
-			    }
-			    else
-			    {
-				// log.info("1");
-				Tile newKey = game.getTile(ant, direction);
-				// log.info("2");
-				calculatedRoutes.put(newKey, route);
-				// log.info("3");
-				calculatedRoutes.remove(ant);
-				// log.info("4");
-				targetMap.put(newKey, route.getEnd());
-
-				targetMap.remove(ant);
-				// log.info("5");
-			    }
-
-			}
-			//
-			// if (doMoveDirection(ant, route.getDirection()))
-			// {
-			// log.info("got instructions from aStarRoute...moving out");
-			// route.update();
-			// Tile newKey = game.getTile(ant, direction);
-			// calculatedRoutes.put(newKey, route);
-			// calculatedRoutes.remove(ant);
-			// }
-		    }
-
+		    orders.block(game.getIndex(tile));
+		    log.info("ant at " + Util.tilePositionAsString(tile) + " not moving, no changes on maps");
 		}
 	    }
+    }
 
-	}
-	else
+    private void executeStoredRoutes()
+    {
+	int taskCount = 0;
+	for (Ant ant : antRegistry.getAnts())
 	{
-	    log.info("Error: ant at " + Util.tilePositionAsString(ant) + " not found " +
-		    calculatedRoutes.containsKey(ant) + ", " +
-		    targetMap.containsKey(ant) + ", " + game.getMyAnts().contains(ant));
+	    if (ant.hasTask())
+	    {
+		resolveMovesIfLate();
+		taskCount++;
+		executeStoredRoute(ant);
+	    }
 	}
+	log.info(taskCount + " ant(s) following their routes");
     }
 
-    private void executeStoredRoutes()
+    private void exploreMap()
     {
-	if (calculatedRoutes.size() > 0)
+	if (frontier.size() == 0)
+	    return;
+
+	// every frontier tile is claimed by the idle ant closest to it, so the
+	// ants spread out instead of heading for the same tile
+	explorerField.clear();
+	for (Tile ant : sortedAnts)
 	{
-	    int tmC = 0;
+	    if (isIdle(ant))
+	    {
+		int index = game.getIndex(ant);
+		explorerField.addSource(index);
+		exploreTargets[index] = -1;
+	    }
+	}
+	explorerField.compute();
 
-	    for (HashMap<Tile, Tile> targetMap : targetsList)
+	for (int i = 0; i < frontier.size(); i++)
+	{
+	    int frontierTile = frontier.get(i);
+	    int explorer = explorerField.getSource(frontierTile);
+	    if (explorer >= 0
+		    && (exploreTargets[explorer] < 0 || explorerField.getDistance(frontierTile) < explorerField
+			    .getDistance(exploreTargets[explorer])))
+		exploreTargets[explorer] = frontierTile;
+	}
+
+	// walking distance from every tile to the nearest frontier tile, for
+	// ants which have not claimed any
+	exploreField.clear();
+	for (int i = 0; i < frontier.size(); i++)
+	    exploreField.addSource(frontier.get(i));
+	exploreField.compute();
+
+	for (Tile ant : sortedAnts)
+	{
+	    resolveMovesIfLate();
+	    if (isIdle(ant))
 	    {
-		tmC++;
-		log.info(targetMap.size() + " ant(s) in targetMap # " + tmC);
-
-		int targetC = 0;
-		ArrayList<Tile> toBeDeleted = new ArrayList<Tile>();
-		Object[] ants = targetMap.keySet().toArray();
-		Tile ant;
-		for (int i = 0; i < ants.length; i++)
-		{
-		    ant = (Tile) ants[i];
-		    if (casualties.contains(ant))
-		    {
-			targetMap.remove(ant);
-			calculatedRoutes.remove(ant);
-		    }
+		int index = game.getIndex(ant);
+		int distance = exploreField.getDistance(index);
+		Aim direction;
+		if (exploreTargets[index] >= 0 && exploreTargets[index] != index)
+		    direction = getExploreDirection(index, exploreTargets[index]);
+		else
+		    direction = exploreField.getDirection(index);
+		boolean isMoving = direction != null && doMoveDirection(ant, direction);
+		antRegistry.get(ant).setStatus(AntStatus.EXPLORING);
 
-		    else
-			executeStoredRoute((Tile) ants[i], targetMap, toBeDeleted);
-		}
-		//
-		// for (Tile ant : targetMap.keySet())
-		// {
-		// targetC++;
-		// log.info("inspection: " + tmC + ", " + targetC);
-		// executeStoredRoute(ant, targetMap, toBeDeleted);
-		// }
-
-		int deleteC = 0;
-		for (Tile delete : toBeDeleted)
+		// any other step getting closer, if the next step is blocked now
+		// or as an alternative if the ant in front does not move on
+		for (Aim other : Aim.values())
 		{
-		    deleteC++;
-		    log.info("deletion: " + tmC + ", " + deleteC);
-		    targetMap.remove(delete);
+		    if (other != direction
+			    && exploreField.getDistance(game.getNeighbour(index, other)) < distance)
+			isMoving = doAlternativeMove(ant, other, isMoving);
 		}
 	    }
 	}
-	else
-	{
-	    log.info("no calculated routes");
-	}
     }
 
-    private void exploreMap()
+    private void findEnemyHills()
     {
-	// TODO spread ants according to division of the map
-	for (Tile ant : sortedAnts)
+	// hills which are visible but not reported anymore have been razed
+	for (Iterator<Tile> it = enemyHills.iterator(); it.hasNext();)
 	{
-	    if (!hasAntOrder(ant))
+	    Tile enemyHill = it.next();
+	    if (game.isVisible(enemyHill) && !game.getEnemyHills().contains(enemyHill))
 	    {
-		List<Route> unseenRoutes = new ArrayList<Route>();
-		for (Tile unseenLoc : unseenTiles)
-		{
-		    int distance = calculateDistance(ant, unseenLoc);
-		    Route route = new Route(ant, unseenLoc, distance);
-		    unseenRoutes.add(route);
-		}
-		Collections.sort(unseenRoutes);
-		for (Route route : unseenRoutes)
+		log.info("enemy hill at " + Util.tilePositionAsString(enemyHill) + " razed");
+		it.remove();
+		hillPlanner.removeGoal(game.getIndex(enemyHill));
+		exploredTiles[enemyHill.getRow()][enemyHill.getCol()] = TileType.LAND;
+
+		// ants heading for it follow the planner to the next hill
+		if (enemyHills.isEmpty())
 		{
-		    if (doMoveLocation(route.getStart(), route.getEnd()))
+		    for (Ant ant : antRegistry.getAnts())
 		    {
-			// log.info("ant at " + Util.tilePositionAsString(ant) +
-			// " exploring "
-			// + Util.tilePositionAsString(route.getEnd()));
-			break;
+			if (ant.getStatus() == AntStatus.RAZING)
+			    antRegistry.clearTask(ant);
 		    }
 		}
 	    }
 	}
-    }
 
-    private void findEnemyHills()
-    {
 	for (Tile enemyHill : game.getEnemyHills())
 	{
 	    if (!enemyHills.contains(enemyHill))
 	    {
 		enemyHills.add(enemyHill);
-		if (exploredTiles[enemyHill.getRow()][enemyHill.getCol()] == null
-			|| exploredTiles[enemyHill.getRow()][enemyHill.getCol()] == TileType.LAND)
+		hillPlanner.addGoal(game.getIndex(enemyHill));
+		if (exploredTiles[enemyHill.getRow()][enemyHill.getCol()] == null)
+		{
 		    exploredTiles[enemyHill.getRow()][enemyHill.getCol()] = TileType.ENEMY_HILL;
+		    unseenCount--;
+		    frontier.reveal(game.getIndex(enemyHill));
+		}
+		else
+		    if (exploredTiles[enemyHill.getRow()][enemyHill.getCol()] == TileType.LAND)
+			exploredTiles[enemyHill.getRow()][enemyHill.getCol()] = TileType.ENEMY_HILL;
 	    }
 	}
     }
@@ -675,58 +668,29 @@ public class MyBot extends Bot
 	// check if any food is visible
 	if (game.getFoodTiles().size() > 0)
 	{
-	    // find close food
-	    List<Route> foodRoutes = new LinkedList<Route>();
-	    TreeSet<Tile> sortedFood = new TreeSet<Tile>(game.getFoodTiles());
-
-	    // find closest ant for every food
-	    for (Tile foodLoc : sortedFood)
+	    // assign close idle ants to the food nobody is heading for already
+	    foodAssignment.clear();
+	    for (Tile foodLoc : game.getFoodTiles())
 	    {
-		if (!foodTargets.containsValue(foodLoc))
-		{
-		    for (Tile ant : sortedAnts)
-		    {
-			if (!hasAntOrder(ant))
-			{
-			    int distance = calculateDistance(ant, foodLoc);
-			    if (distance < 20)
-			    {
-				Route route = new Route(ant, foodLoc, distance);
-				foodRoutes.add(route);
-			    }
-			    else
-			    {
-				// log.info("food at " +
-				// Util.tilePositionAsString(foodLoc) +
-				// " too far from ant at "
-				// + Util.tilePositionAsString(ant) + ": " +
-				// distance);
-			    }
-
-			}
-			else
-			{
-			    // log.info("ant at " +
-			    // Util.tilePositionAsString(ant) +
-			    // " too busy with "
-			    // + Util.getKeybyValue(orders, ant)
-			    // + " to care about food at " + foodLoc);
-			}
-		    }
-		}
+		if (antRegistry.getGatherer(game.getIndex(foodLoc)) == null)
+		    foodAssignment.addFood(game.getIndex(foodLoc));
+	    }
+	    for (Tile ant : sortedAnts)
+	    {
+		if (isIdle(ant))
+		    foodAssignment.addAnt(game.getIndex(ant));
 	    }
-	    Collections.sort(foodRoutes);
+	    foodAssignment.solve(MAX_FOOD_DISTANCE - 1);
 
 	    // find way to food
-	    for (ListIterator<Route> foodRouteIterator = foodRoutes.listIterator(); foodRouteIterator.hasNext();)
+	    for (int i = 0; i < foodAssignment.size(); i++)
 	    {
-		Route foodRoute = foodRouteIterator.next();
-		Tile ant = foodRoute.getStart();
-		Tile food = foodRoute.getEnd();
-
-		// check if ant is not busy and food not searched by other ant
-		if (!foodTargets.containsValue(food) && !hasAntOrder(ant))
+		resolveMovesIfLate();
+		if (foodAssignment.getAnt(i) >= 0)
 		{
+		    Tile ant = game.getTile(foodAssignment.getAnt(i));
+		    Tile food = game.getTile(foodAssignment.getFood(i));
+
 		    log.info("ant at " + Util.tilePositionAsString(ant) + " trying to get food at "
 			    + Util.tilePositionAsString(food));
 
@@ -734,64 +698,20 @@ public class MyBot extends Bot
 		    IRoute route = new ManhattanRoute(game, ant, food, true, true, exploredTiles, log);
 		    boolean hasDirectPath = route.findRoute();
 
-		    // direct way found
-		    if (hasDirectPath)
+		    // no direct way found, try indirect instead
+		    if (!hasDirectPath)
 		    {
-			calculatedRoutes.put(ant, route);
-			foodTargets.put(ant, food);
-			executeStoredRoute(ant, foodTargets, null);
+			log.info("no direct path found from " + Util.tilePositionAsString(route.getStart()) + " to "
+				+ Util.tilePositionAsString(route.getEnd()) + ". Trying indirect path..");
+			route = createIndirectRoute(ant, food, true);
 		    }
 
-		    // no direct way found, try indirect (A*) instead
-		    else
+		    // way found
+		    if (hasDirectPath || route.findRoute())
 		    {
-			log.info("no direct path found from " + Util.tilePositionAsString(route.getStart()) + " to "
-				+ Util.tilePositionAsString(route.getEnd()) + ". Trying indirect path (A*)..");
-
-			if (foodRouteIterator.hasNext())
-			{
-			    Route nextFoodRoute = foodRouteIterator.next();
-			    foodRouteIterator.previous();
-			    if (foodRoute.getDistance() * 3 < (nextFoodRoute.getDistance()))
-			    {
-				route = new AStarRoute(game, ant, food, true, exploredTiles, log);
-
-				// indirect way found
-				if (route.findRoute())
-				{
-				    calculatedRoutes.put(ant, route);
-				    foodTargets.put(ant, food);
-				    executeStoredRoute(ant, foodTargets, null);
-				}
-				// no indirect way found either
-				else
-				{
-				}
-			    }
-			    else
-			    {
-				log.info("avoiding indirect (A*) path, because there is a (probably) closer food at "
-					+ Util.tilePositionAsString(nextFoodRoute.getEnd()));
-			    }
-			}
-			else
-			{
-			    route = new AStarRoute(game, ant, food, true, exploredTiles, log);
-
-			    // indirect way found
-			    if (route.findRoute())
-			    {
-				calculatedRoutes.put(ant, route);
-				foodTargets.put(ant, food);
-				executeStoredRoute(ant, foodTargets, null);
-			    }
-			    // no indirect way found either
-			    else
-			    {
-			    }
-			}
+			antRegistry.setTask(antRegistry.get(ant), AntStatus.GATHERING, route);
+			executeStoredRoute(antRegistry.get(ant));
 		    }
-
 		}
 	    }
 	}
@@ -802,45 +722,83 @@ public class MyBot extends Bot
 	}
     }
 
+    /**
+     * @return Manhattan distance on the wrapped map (ignoring water) to the
+     *         closest enemy ant, -1 if no enemy ant is visible
+     */
     private int getClosestEnemyDistance(Tile antLoc)
     {
-	Set<Tile> enemies = getEnemyAntsInRange(antLoc, game.getAttackRadius2() * 4);
-	// log.info(enemies.size() + " enemies found");
-	if (enemies.size() < 1)
+	int enemy = antGrid.getNearest(game.getIndex(antLoc), AntGrid.ENEMIES);
+	if (enemy < 0)
 	    return -1;
-	else
+	return calculateDistance(antLoc, game.getTile(enemy));
+    }
+
+    /**
+     * @param radius2
+     *            squared distance
+     * @return location indexes of the enemy ants within the distance, valid
+     *         until the next call
+     */
+    private IntList getEnemyAntsInRange(Tile antLoc, int radius2)
+    {
+	enemiesInRange.clear();
+	antGrid.getAnts(game.getIndex(antLoc), radius2, AntGrid.ENEMIES, enemiesInRange);
+	return enemiesInRange;
+    }
+
+    /**
+     * Returns the largest number of ants of one enemy which can attack a tile
+     * in the next turn. Enemies fight each other as well, so only the
+     * strongest one has to be outnumbered.
+     */
+    private int getEnemyThreat(int index)
+    {
+	if (game.getThreat(index) == 0)
+	    return 0;
+
+	IntList enemies = getEnemyAntsInRange(game.getTile(index), threatRadius2);
+	int threat = 0;
+	for (int i = 0; i < enemies.size(); i++)
 	{
-	    int closestDistance = Integer.MAX_VALUE;
-	    for (Tile enemy : enemies)
+	    int enemy = enemies.get(i);
+	    if (game.canAttack(enemy, index))
 	    {
-		int distance = calculateDistance(antLoc, enemy);
-		if (distance < closestDistance)
-		    closestDistance = distance;
+		int owner = game.getOwner(enemy);
+		if (owner >= enemyCounts.length)
+		    enemyCounts = Arrays.copyOf(enemyCounts, owner + 1);
+		threat = Math.max(threat, ++enemyCounts[owner]);
 	    }
-	    return closestDistance;
 	}
+	for (int i = 0; i < enemies.size(); i++)
+	{
+	    int owner = game.getOwner(enemies.get(i));
+	    if (owner < enemyCounts.length)
+		enemyCounts[owner] = 0;
+	}
+	return threat;
     }
 
-    private Set<Tile> getEnemyAntsInRange(Tile antLoc, int range)
+    /**
+     * Returns the direction of the first step of the shortest path from an
+     * idle ant to its claimed frontier tile, by walking the path backwards.
+     */
+    private Aim getExploreDirection(int ant, int target)
     {
-	Set<Tile> enemies = new HashSet<Tile>(game.getEnemyAnts());
-	ArrayList<Tile> toBeDeleted = new ArrayList<Tile>();
-	for (Tile enemy : enemies)
+	int index = target;
+	while (true)
 	{
-	    if (calculateDistance(enemy, antLoc) > range)
-		toBeDeleted.add(enemy);
+	    Aim direction = explorerField.getDirection(index);
+	    int next = game.getNeighbour(index, direction);
+	    if (next == ant)
+		return Util.getOppositeDirection(direction);
+	    index = next;
 	}
-	for (Tile delete : toBeDeleted)
-	{
-	    enemies.remove(delete);
-	}
-
-	return enemies;
     }
 
     private boolean hasAntOrder(Tile ant)
     {
-	return orders.containsValue(ant);
+	return orders.hasOrder(game.getIndex(ant));
     }
 
     private void initEveryTurn()
@@ -848,48 +806,64 @@ public class MyBot extends Bot
 	// increase turnCounter
 	currentTurn++;
 
-	// init stuff that needs reference to getAnts() (on first turn only)
-	if (currentTurn == 1)
-	    initTurnOne();
-	else
-	    if (currentTurn == 2 && !turnTwoInited)
-		initTurnTwo();
+	// init stuff that needs own hills (on second turn only)
+	if (currentTurn == 2 && !turnTwoInited)
+	    initTurnTwo();
 
 	// clear orders
 	orders.clear();
-
-	// clear casualties
+	moveResolver.clear();
+	reservations.clear();
+	antGrid.update();
 
 	// reset sortedAnts
 	sortedAnts = new TreeSet<Tile>(game.getMyAnts());
     }
     /**
-     * called on first turn because getAnts() does not return anything in
-     * constructor
+     * called on setup because getAnts() does not return anything in
+     * constructor. Uses the load time for everything depending on the map
+     * size only.
      */
-    private void initTurnOne()
+    private void initSetup()
     {
 	// save ants reference
 	game = getAnts();
 
+	// send orders issued so far right away if the turn is about to time out
+	game.setOrderFlushTime(50);
+
 	// init tile Lists
+	// all tiles start unseen (null)
 	exploredTiles = new TileType[game.getRows()][game.getCols()];
-	visibleTiles = new HashSet<Tile>();
-	calculatedRoutes = new HashMap<Tile, IRoute>();
+	pathFinder = new AStar(game, exploredTiles);
+	jumpPointSearch = new JumpPointSearch(game, exploredTiles);
+	if (useJumpPointSearch)
+	    routeCache = new RouteCache(game, jumpPointSearch, ROUTE_CACHE_SIZE);
+	else
+	    routeCache = new RouteCache(game, pathFinder, ROUTE_CACHE_SIZE);
+	hierarchicalPathFinder = new HierarchicalPathFinder(game, exploredTiles);
+	landmarks = new Landmarks(game, exploredTiles, LANDMARK_ROWS * LANDMARK_COLS + MAX_HILL_LANDMARKS);
+	landmarks.addGrid(LANDMARK_ROWS, LANDMARK_COLS);
+	pathFinder.setLandmarks(landmarks);
+	jumpPointSearch.setLandmarks(landmarks);
+	foodAssignment = new FoodAssignment(game, exploredTiles);
+	hillPlanner = new DStarLite(game, exploredTiles);
+	reservations = new ReservationTable(game, RESERVATION_DEPTH);
+	moveResolver = new MoveResolver(game);
+	orders = new OrderLedger(game);
+	antRegistry = new AntRegistry(game);
+	antGrid = new AntGrid(game);
+	enemiesInRange = new IntList();
+	int reach = (int) Math.ceil(Math.sqrt(game.getAttackRadius2())) + 1;
+	threatRadius2 = reach * reach;
+	enemyCounts = new int[2];
+	cooperativeSearch = new CooperativeSearch(game, exploredTiles, reservations);
+	exploreField = new DistanceField(game, exploredTiles);
+	explorerField = new DistanceField(game, exploredTiles);
+	frontier = new Frontier(game, exploredTiles);
 	totalTiles = game.getRows() * game.getCols();
-
-	// add all locations to unseen tiles set and mark as null in seenTiles
-	unseenTiles = new HashSet<Tile>();
-	for (int row = 0; row < game.getRows(); row++)
-	{
-	    for (int col = 0; col < game.getCols(); col++)
-	    {
-		Tile tile = new Tile(row, col);
-		visibleTiles.add(tile);
-		unseenTiles.add(tile);
-		exploredTiles[row][col] = null;
-	    }
-	}
+	exploreTargets = new int[totalTiles];
+	unseenCount = totalTiles;
     }
 
     private void initTurnTwo()
@@ -899,9 +873,18 @@ public class MyBot extends Bot
 	for (Tile myHill : game.getMyHills())
 	{
 	    exploredTiles[myHill.getRow()][myHill.getCol()] = TileType.MY_HILL;
+	    landmarks.addLandmark(game.getIndex(myHill));
 	}
     }
 
+    /**
+     * Checks if an ant has neither an order nor a task it is following.
+     */
+    private boolean isIdle(Tile ant)
+    {
+	return !hasAntOrder(ant) && !antRegistry.get(ant).hasTask();
+    }
+
     private boolean isOwnArmyStronger(boolean doRegardRemainingFood, int factor)
     {
 	int difference = game.getMyAnts().size() - (game.getEnemyAnts().size() * factor);
@@ -920,6 +903,24 @@ public class MyBot extends Bot
 	}
     }
 
+    /**
+     * Checks if a move leads an ant where the ants of one enemy which can
+     * attack it in the next turn are at least as many as own ants, itself
+     * included, and where that enemy is stronger than where it stands. Enemy
+     * hills are worth the risk.
+     *
+     * @param from
+     *            location index of the ant
+     * @param to
+     *            location index the ant moves onto
+     */
+    private boolean isSuicidal(int from, int to)
+    {
+	int threat = getEnemyThreat(to);
+	return threat > 0 && threat >= game.getSupport(to) && threat > getEnemyThreat(from)
+		&& !enemyHills.contains(game.getTile(to));
+    }
+
     private void logExploredMap()
     {
 	String str = "";
@@ -964,58 +965,180 @@ public class MyBot extends Bot
 	for (Tile myHill : game.getMyHills())
 	{
 	    if (game.getMyAnts().contains(myHill) &&
-		    !orders.containsValue(myHill))
+		    !hasAntOrder(myHill))
 	    {
+		// the other directions are alternatives if the ant in front
+		// does not move on
+		boolean isMoving = false;
 		for (Aim direction : Aim.values())
+		    isMoving = doAlternativeMove(myHill, direction, isMoving);
+	    }
+	}
+	// TODO keep ants as guards
+    }
+
+    /**
+     * Moves an ant one step along its route and reserves the tiles it will
+     * pass during the next moves. If the next tile is taken, the ant plans a
+     * way around the tiles reserved by other ants which leads back to its
+     * route (windowed cooperative A*), and waits if there is none.
+     *
+     * @return Direction the ant moved in, <code>null</code> if it waits
+     */
+    private Aim moveAlongRoute(Tile ant, IRoute route)
+    {
+	int index = game.getIndex(ant);
+	int moves = Math.min(COOPERATIVE_WINDOW, route.getRemainingMoves());
+	Aim direction = route.getDirection();
+
+	if (!reservations.isReserved(game.getNeighbour(index, direction), 1) && doMoveDirection(ant, direction))
+	{
+	    for (int turn = 2; turn <= moves; turn++)
+		reservations.reserve(route.getPosition(turn), turn, index);
+	    return direction;
+	}
+
+	if (moves > 0 && cooperativeSearch.findPath(index, route.getPosition(moves), RESERVATION_DEPTH))
+	{
+	    direction = cooperativeSearch.getFirstDirection();
+	    if (direction == null || doMoveDirection(ant, direction))
+	    {
+		if (direction != null)
 		{
-		    if (doMoveDirection(myHill, direction))
-		    {
-			break;
-		    }
+		    log.info("ant at " + Util.tilePositionAsString(ant) + " goes around other ants");
+		    route.detour(cooperativeSearch.getMoves(), moves);
 		}
+		for (int turn = 1; turn <= cooperativeSearch.getArrivalTurn(); turn++)
+		    reservations.reserve(cooperativeSearch.getPosition(turn), turn, index);
+		return direction;
 	    }
 	}
-	// TODO keep ants as guards
+
+	reservations.reserve(index, 1, index);
+	return null;
     }
 
     /**
-     * Puts null into orders where the key is an own hill
+     * Blocks own hills in the orders, so no ant steps onto them
      */
     private void preventSteppingOnOwnHill()
     {
 	for (Tile myHill : game.getMyHills())
 	{
-	    orders.put(myHill, null);
+	    orders.block(game.getIndex(myHill));
 	}
     }
 
     /**
-     * Iterates trough unseen tiles and checks whether they are visible now.
-     * If so, its <code>TileType</code> is stored in <code>exploredTiles</code>.
+     * Decides the moves asked for so far together, issues the orders and
+     * updates everything which depends on where the ants end up: orders, the
+     * tiles the ants are expected on next turn and the routes of the ants
+     * which moved. Routes of ants which could not move after all keep their
+     * next step, ants pushed off their route give up their task. Ants which
+     * stay block their tile for moves asked for later in the turn.
+     */
+    private void resolveMoves()
+    {
+	moveResolver.resolve();
+
+	for (int i = 0; i < moveResolver.size(); i++)
+	{
+	    Tile ant = game.getTile(moveResolver.getAnt(i));
+	    Tile firstLoc = game.getTile(ant, moveResolver.getFirstDirection(i));
+	    orders.remove(game.getIndex(firstLoc));
+	    if (moveResolver.getDirection(i) != moveResolver.getFirstDirection(i))
+		log.info("ant at " + Util.tilePositionAsString(ant) + " cannot move "
+			+ moveResolver.getFirstDirection(i) + ", moves " + moveResolver.getDirection(i));
+	}
+
+	for (int i = 0; i < moveResolver.size(); i++)
+	{
+	    Aim direction = moveResolver.getDirection(i);
+	    if (direction == null)
+	    {
+		orders.block(moveResolver.getAnt(i));
+		continue;
+	    }
+
+	    Ant ant = antRegistry.get(moveResolver.getAnt(i));
+	    Tile newLoc = game.getTile(ant.getPosition(), direction);
+	    game.issueOrder(ant.getPosition(), direction);
+	    orders.add(game.getIndex(ant.getPosition()), game.getIndex(newLoc));
+	    ant.setNextPosition(newLoc);
+
+	    if (ant.hasTask())
+	    {
+		IRoute route = ant.getRoute();
+		if (direction == ant.getRouteDirection())
+		{
+		    route.update();
+		    if (route.isFinished())
+		    {
+			log.info("finished route to " + Util.tilePositionAsString(route.getEnd()));
+			antRegistry.clearTask(ant);
+		    }
+		}
+		else
+		{
+		    // pushed off its route, e.g. to unblock a hill
+		    log.info("ant #" + ant.getId() + " leaves its route to "
+			    + Util.tilePositionAsString(route.getEnd()));
+		    antRegistry.clearTask(ant);
+		}
+	    }
+	}
+	moveResolver.clear();
+    }
+
+    /**
+     * Issues the moves decided so far if the turn is about to time out, so
+     * they are written before the deadline. The turn goes on with the ants
+     * which have no order yet.
+     */
+    private void resolveMovesIfLate()
+    {
+	if (game.getOrderFlushTime() > 0 && game.getTimeRemaining() < game.getOrderFlushTime())
+	    resolveMoves();
+    }
+
+    /**
+     * Iterates trough visible tiles and checks whether they are unexplored.
+     * If so, its <code>TileType</code> is stored in <code>exploredTiles</code>
+     * and the frontier is updated.
      * Own hills are tracked in <code>TurnTwoInit()</code>, enemy hills in
      * <code>findEnemyHills()</code>.
      */
     private void trackExploring()
     {
-	// remove any tiles that can be seen and keep track of what kind of tile
-	// they are (water, land, ownHill or enemyHill)
-	for (Iterator<Tile> locIter = unseenTiles.iterator(); locIter.hasNext();)
+	// keep track of what kind of tile the newly seen tiles are (water or
+	// land)
+	for (int index = game.nextVisible(0); index >= 0; index = game.nextVisible(index + 1))
 	{
-	    Tile next = locIter.next();
-	    if (game.isVisible(next))
+	    int row = game.getRow(index);
+	    int col = game.getCol(index);
+	    if (exploredTiles[row][col] == null)
 	    {
-		locIter.remove();
-		if (exploredTiles[next.getRow()][next.getCol()] == null)
+		if (game.getIlk(index) == Ilk.WATER)
 		{
-		    if (game.getIlk(next) == Ilk.WATER)
-			exploredTiles[next.getRow()][next.getCol()] = TileType.WATER;
-		    else
-			exploredTiles[next.getRow()][next.getCol()] = TileType.LAND;
+		    exploredTiles[row][col] = TileType.WATER;
+		    routeCache.markWater(index);
+		    hierarchicalPathFinder.markWater(index);
+		    landmarks.markWater(index);
+		    hillPlanner.markWater(index);
 		}
+		else
+		    exploredTiles[row][col] = TileType.LAND;
+		unseenCount--;
+		frontier.reveal(index);
 	    }
 	}
 
-	exploredPercentage = (totalTiles - unseenTiles.size()) * 100
+	// rebuild the parts of the hierarchical graph and the landmark tables
+	// changed by new water
+	hierarchicalPathFinder.update();
+	landmarks.update(LANDMARK_UPDATES_PER_TURN);
+
+	exploredPercentage = (totalTiles - unseenCount) * 100
 		/ (totalTiles);
 	if (exploredPercentage >= 100)
 	{
@@ -1029,24 +1152,28 @@ public class MyBot extends Bot
     {
 	for (Tile ant : game.getMyAnts())
 	{
-	    if (!orders.containsValue(ant))
+	    if (!hasAntOrder(ant))
 	    {
 		log.info("ant without order at " + Util.tilePositionAsString(ant));
-		myPerceivedAnts.add(ant);
 	    }
 
 	}
     }
 
-    private void updateTargetLists()
+    /**
+     * Matches the own ants with those of the last turn, which gives new ants
+     * their ids and drops the tasks of the dead ones.
+     */
+    private void updateAnts()
     {
-	for (Tile food : collectedFoods)
+	antRegistry.update(currentTurn);
+	for (Ant ant : antRegistry.getDeadAnts())
 	{
-	    log.info("deleting key (ant) at " + Util.tilePositionAsString(food));
-	    foodTargets.remove(food);
+	    log.info("dead ant #" + ant.getId() + " at " + Util.tilePositionAsString(ant.getNextPosition())
+		    + ", age " + ant.getAge(currentTurn) + ", " + ant.getStatus());
 	}
-
-	collectedFoods.clear();
+	for (Ant ant : antRegistry.getNewAnts())
+	    log.info("new ant #" + ant.getId() + " at " + Util.tilePositionAsString(ant.getPosition()));
     }
 
     /**
@@ -1054,14 +1181,7 @@ public class MyBot extends Bot
      */
     private void updateVisibleTiles()
     {
-	int numVisible = 0;
-	for (Iterator<Tile> tileIter = visibleTiles.iterator(); tileIter.hasNext();)
-	{
-	    Tile next = tileIter.next();
-	    if (game.isVisible(next))
-		numVisible++;
-	}
-	visiblePercentage = (numVisible * 100) / totalTiles;
+	visiblePercentage = (game.getVisibleCount() * 100) / totalTiles;
     }
 
 }
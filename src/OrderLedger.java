@@ -0,0 +1,144 @@
+import java.util.Arrays;
+
+/**
+ * Orders of the current turn, indexed both ways: which ant moves onto a tile
+ * and where an ant moves to. Both are arrays over the location indexes, so
+ * every lookup takes constant time. Entries are only valid if their stamp
+ * holds the current turn, so <code>clear()</code> does not touch the arrays.
+ */
+public class OrderLedger
+{
+    /**
+     * Ant or destination of tiles without an order.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Ant moving onto every tile, <code>NONE</code> if the tile is blocked
+     */
+    private final int[] ants;
+    private final int[] tileStamps;
+
+    /**
+     * Tile every ant moves onto
+     */
+    private final int[] destinations;
+    private final int[] antStamps;
+    private int turn;
+
+    public OrderLedger(Ants game)
+    {
+	int cells = game.getRows() * game.getCols();
+	ants = new int[cells];
+	tileStamps = new int[cells];
+	destinations = new int[cells];
+	antStamps = new int[cells];
+	turn = 1;
+    }
+
+    /**
+     * Removes all orders.
+     */
+    public void clear()
+    {
+	turn++;
+	if (turn == Integer.MAX_VALUE)
+	{
+	    Arrays.fill(tileStamps, 0);
+	    Arrays.fill(antStamps, 0);
+	    turn = 1;
+	}
+    }
+
+    /**
+     * Adds the order of an ant.
+     *
+     * @param ant
+     *            location index of the ant
+     * @param destination
+     *            location index the ant moves onto
+     */
+    public void add(int ant, int destination)
+    {
+	tileStamps[destination] = turn;
+	ants[destination] = ant;
+	antStamps[ant] = turn;
+	destinations[ant] = destination;
+    }
+
+    /**
+     * Keeps other ants from moving onto a tile, e.g. because an ant stays
+     * there. A tile some ant moves onto already stays its destination.
+     *
+     * @param index
+     *            location index
+     */
+    public void block(int index)
+    {
+	if (tileStamps[index] != turn)
+	{
+	    tileStamps[index] = turn;
+	    ants[index] = NONE;
+	}
+    }
+
+    /**
+     * Removes the order of the ant moving onto a tile, or the block of the
+     * tile.
+     *
+     * @param destination
+     *            location index
+     */
+    public void remove(int destination)
+    {
+	if (tileStamps[destination] == turn)
+	{
+	    int ant = ants[destination];
+	    if (ant != NONE && antStamps[ant] == turn && destinations[ant] == destination)
+		antStamps[ant] = 0;
+	    tileStamps[destination] = 0;
+	}
+    }
+
+    /**
+     * Checks if some ant moves onto a tile or it is blocked.
+     *
+     * @param index
+     *            location index
+     */
+    public boolean isTaken(int index)
+    {
+	return tileStamps[index] == turn;
+    }
+
+    /**
+     * @param ant
+     *            location index of the ant
+     */
+    public boolean hasOrder(int ant)
+    {
+	return antStamps[ant] == turn;
+    }
+
+    /**
+     * @param destination
+     *            location index
+     * @return location index of the ant moving onto the tile,
+     *         <code>NONE</code> if there is none
+     */
+    public int getAnt(int destination)
+    {
+	return tileStamps[destination] == turn ? ants[destination] : NONE;
+    }
+
+    /**
+     * @param ant
+     *            location index of the ant
+     * @return location index the ant moves onto, <code>NONE</code> if it has
+     *         no order
+     */
+    public int getDestination(int ant)
+    {
+	return antStamps[ant] == turn ? destinations[ant] : NONE;
+    }
+}
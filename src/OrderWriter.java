@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Encodes orders into a reusable byte buffer and writes them to the output stream in one go.
+ */
+public class OrderWriter {
+    private static final byte[] GO = { 'g', 'o', '\n' };
+    
+    private final OutputStream out;
+    
+    private byte buffer[] = new byte[16 * 1024];
+    
+    private int length;
+    
+    /**
+     * Creates new {@link OrderWriter} object.
+     * 
+     * @param out stream the orders are written to
+     */
+    public OrderWriter(OutputStream out) {
+        this.out = out;
+    }
+    
+    /**
+     * Adds an order to the buffer.
+     * 
+     * @param row row index of my ant
+     * @param col column index of my ant
+     * @param direction direction in which to move my ant
+     */
+    public void write(int row, int col, Aim direction) {
+        ensureCapacity(32);
+        buffer[length++] = 'o';
+        buffer[length++] = ' ';
+        writeInt(row);
+        buffer[length++] = ' ';
+        writeInt(col);
+        buffer[length++] = ' ';
+        buffer[length++] = (byte)direction.getSymbol();
+        buffer[length++] = '\n';
+    }
+    
+    /**
+     * Returns whether there are buffered orders which have not been written yet.
+     * 
+     * @return <code>true</code> if there are buffered orders, <code>false</code> otherwise
+     */
+    public boolean hasPendingOrders() {
+        return length > 0;
+    }
+    
+    /**
+     * Writes all buffered orders to the output stream.
+     */
+    public void flush() {
+        try {
+            if (length > 0) {
+                out.write(buffer, 0, length);
+                length = 0;
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Writes all buffered orders followed by <code>go</code> to the output stream.
+     */
+    public void finishTurn() {
+        ensureCapacity(GO.length);
+        System.arraycopy(GO, 0, buffer, length, GO.length);
+        length += GO.length;
+        flush();
+    }
+    
+    private void writeInt(int value) {
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            buffer[length++] = (byte)('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte digit = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = digit;
+        }
+    }
+    
+    private void ensureCapacity(int needed) {
+        if (length + needed > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + needed));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+import java.util.logging.Logger;
+
+/**
+ * Planned Route follows the shortest path to the nearest goal of a
+ * <code>DStarLite</code> planner, which is shared by all ants heading for its
+ * goals. No path is stored: every step is taken from the planner, so the
+ * route follows its repairs when water is found on the way or a goal is
+ * removed. The end is the goal nearest to the start.
+ *
+ * @see DStarLite
+ */
+public class PlannedRoute implements IRoute
+{
+    private Ants game;
+    private Tile start;
+    private Tile end;
+    private Tile current;
+    private boolean isFoodRoute;
+    private boolean isFinished;
+    private DStarLite planner;
+    private Logger log;
+
+    /**
+     * Moves taken before following the planner again, <code>null</code> if
+     * there is no detour
+     */
+    private DirectionPath detour;
+    private int detourCounter;
+
+    /**
+     * Direction last handed out by the planner. The ant moves along it even if
+     * the planner finds an equally short way before the move is resolved.
+     */
+    private Aim direction;
+
+    /**
+     * @see PlannedRoute
+     */
+    public PlannedRoute(Ants game, Tile start, boolean isFoodRoute, DStarLite planner, Logger log)
+    {
+	this.game = game;
+	this.start = start;
+	this.current = start;
+	this.isFoodRoute = isFoodRoute;
+	this.planner = planner;
+	this.log = log;
+
+	isFinished = false;
+    }
+
+    @Override
+    public boolean findRoute()
+    {
+	int expanded = planner.getExpandedCounter();
+	int distance = planner.getDistance(game.getIndex(start));
+	boolean ret = distance != DStarLite.UNREACHABLE;
+	if (ret)
+	    end = game.getTile(planner.getNearestGoal(game.getIndex(start)));
+
+	String str = (ret) ? "possible in " + distance + " moves" : "impossible";
+	log.info("planned path from " + start.getRow() + ", " + start.getCol() + " to "
+		+ (ret ? end.getRow() + ", " + end.getCol() : "any goal") + " is " + str + " ("
+		+ (planner.getExpandedCounter() - expanded) + " tiles expanded)");
+
+	return ret;
+    }
+
+    @Override
+    public Aim getDirection()
+    {
+	if (detour != null)
+	    return detour.get(detourCounter);
+
+	direction = planner.getDirection(game.getIndex(current));
+	if (direction == null)
+	    log.info("no direction found");
+	return direction;
+    }
+
+    @Override
+    public void update()
+    {
+	current = game.getTile(current, detour != null || direction == null ? getDirection() : direction);
+	direction = null;
+	if (detour != null && ++detourCounter == detour.size())
+	    detour = null;
+
+	int distance = planner.getDistance(game.getIndex(current));
+	if (detour == null && (distance == 0 || isFoodRoute && distance == 1))
+	    isFinished = true;
+    }
+
+    @Override
+    public int getRemainingMoves()
+    {
+	int moves = detour != null ? detour.size() - detourCounter : 0;
+	int distance = planner.getDistance(getPosition(moves));
+	if (distance == DStarLite.UNREACHABLE)
+	    return moves;
+	return moves + (isFoodRoute ? Math.max(distance - 1, 0) : distance);
+    }
+
+    @Override
+    public int getPosition(int moves)
+    {
+	int index = game.getIndex(current);
+	for (int i = 0; i < moves; i++)
+	{
+	    Aim next;
+	    if (detour != null && detourCounter + i < detour.size())
+		next = detour.get(detourCounter + i);
+	    else
+		next = planner.getDirection(index);
+	    // the route ends early at a goal or if the planner lost the way
+	    if (next == null)
+		break;
+	    index = game.getNeighbour(index, next);
+	}
+	return index;
+    }
+
+    @Override
+    public void detour(DirectionPath steps, int moves)
+    {
+	// the planner leads on from any tile, so only the rest of an earlier
+	// detour has to be kept
+	DirectionPath detoured = new DirectionPath(steps.size());
+	for (int i = 0; i < steps.size(); i++)
+	    detoured.add(steps.get(i));
+	if (detour != null)
+	{
+	    for (int i = detourCounter + moves; i < detour.size(); i++)
+		detoured.add(detour.get(i));
+	}
+	detour = detoured.size() > 0 ? detoured : null;
+	detourCounter = 0;
+	direction = null;
+    }
+
+    @Override
+    public Tile getStart()
+    {
+	return start;
+    }
+
+    @Override
+    public Tile getEnd()
+    {
+	return end;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+	return isFinished;
+    }
+
+    @Override
+    public boolean isFoodRoute()
+    {
+	return isFoodRoute;
+    }
+}
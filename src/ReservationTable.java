@@ -0,0 +1,179 @@
+import java.util.Arrays;
+
+/**
+ * Space-time reservations of tiles for the next few turns. An ant moving
+ * along its route reserves the tiles it will stand on, so ants planned later
+ * in the same turn can go around or wait instead of running into it. Turns
+ * are counted from the current one, which is turn 0. All reservations are
+ * dropped by <code>clear()</code> at the start of every turn. The
+ * reservations are kept in a hash table, so they take memory in proportion to
+ * their number rather than to the map size times the depth.
+ *
+ * @see CooperativeSearch
+ */
+public class ReservationTable
+{
+    /**
+     * Owner of tiles which are not reserved.
+     */
+    public static final int NO_OWNER = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int cells;
+    private final int depth;
+
+    /**
+     * Reserved tiles by turn * cells + location index, with their owners.
+     * Open addressing with linear probing, a slot is used if
+     * <code>stamps</code> holds the current generation. The table grows when
+     * it gets half full.
+     */
+    private int[] keys;
+    private int[] owners;
+    private int[] stamps;
+    private int size;
+    private int generation;
+
+    /**
+     * @param depth
+     *            number of turns tiles can be reserved for
+     */
+    public ReservationTable(Ants game, int depth)
+    {
+	cells = game.getRows() * game.getCols();
+	this.depth = depth;
+
+	keys = new int[INITIAL_CAPACITY];
+	owners = new int[INITIAL_CAPACITY];
+	stamps = new int[INITIAL_CAPACITY];
+	size = 0;
+	generation = 1;
+    }
+
+    public int getDepth()
+    {
+	return depth;
+    }
+
+    /**
+     * Removes all reservations.
+     */
+    public void clear()
+    {
+	size = 0;
+	generation++;
+	if (generation == Integer.MAX_VALUE)
+	{
+	    Arrays.fill(stamps, 0);
+	    generation = 1;
+	}
+    }
+
+    /**
+     * Reserves a tile. Turns beyond the depth are ignored.
+     *
+     * @param index
+     *            location index
+     * @param turn
+     *            number of turns from now
+     * @param owner
+     *            anything which identifies the ant, e.g. its location index
+     *            at the start of the turn
+     */
+    public void reserve(int index, int turn, int owner)
+    {
+	if (turn > depth)
+	    return;
+
+	int key = turn * cells + index;
+	int slot = find(key);
+	if (stamps[slot] != generation)
+	{
+	    if (2 * (size + 1) > keys.length)
+	    {
+		grow();
+		slot = find(key);
+	    }
+	    stamps[slot] = generation;
+	    keys[slot] = key;
+	    size++;
+	}
+	owners[slot] = owner;
+    }
+
+    /**
+     * Returns who has reserved a tile.
+     *
+     * @param index
+     *            location index
+     * @param turn
+     *            number of turns from now
+     * @return owner given to <code>reserve()</code>, <code>NO_OWNER</code> if
+     *         the tile is free
+     */
+    public int getOwner(int index, int turn)
+    {
+	if (turn > depth)
+	    return NO_OWNER;
+	int slot = find(turn * cells + index);
+	return stamps[slot] == generation ? owners[slot] : NO_OWNER;
+    }
+
+    public boolean isReserved(int index, int turn)
+    {
+	return getOwner(index, turn) != NO_OWNER;
+    }
+
+    /**
+     * Checks if a move collides with an ant coming the opposite way, which
+     * would swap places with it.
+     *
+     * @param from
+     *            location index before the move
+     * @param to
+     *            location index after the move
+     * @param turn
+     *            number of turns from now the move ends
+     */
+    public boolean isSwap(int from, int to, int turn)
+    {
+	int owner = getOwner(to, turn - 1);
+	return owner != NO_OWNER && owner == getOwner(from, turn);
+    }
+
+    /**
+     * Returns the slot holding a key, or the free slot it would go to.
+     */
+    private int find(int key)
+    {
+	int mask = keys.length - 1;
+	int slot = key * 0x9E3779B9 >>> Integer.numberOfLeadingZeros(mask);
+	while (stamps[slot] == generation && keys[slot] != key)
+	    slot = (slot + 1) & mask;
+	return slot;
+    }
+
+    /**
+     * Doubles the capacity and moves the reservations of this turn over.
+     */
+    private void grow()
+    {
+	int[] oldKeys = keys;
+	int[] oldOwners = owners;
+	int[] oldStamps = stamps;
+	keys = new int[2 * oldKeys.length];
+	owners = new int[2 * oldKeys.length];
+	stamps = new int[2 * oldKeys.length];
+	for (int i = 0; i < oldKeys.length; i++)
+	{
+	    if (oldStamps[i] == generation)
+	    {
+		int slot = find(oldKeys[i]);
+		stamps[slot] = generation;
+		keys[slot] = oldKeys[i];
+		owners[slot] = oldOwners[i];
+	    }
+	}
+    }
+}
@@ -0,0 +1,259 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Remembers the paths found by another <code>IPathFinder</code>, so the same
+ * query is not searched twice. Every part of a shortest path is a shortest
+ * path itself, so a cached path also answers queries starting at any of its
+ * tiles towards the same target.<br />
+ * The paths are stored as packed directions, and the routes get views of the
+ * same steps.<br />
+ * The least recently used paths are dropped when the cache is full. A path is
+ * dropped as well as soon as one of its tiles turns out to be water, which
+ * has to be reported by <code>markWater()</code>.
+ */
+public class RouteCache implements IPathFinder
+{
+    private final Ants game;
+    private final IPathFinder pathFinder;
+    private final int capacity;
+    private final long cells;
+
+    /**
+     * Cached paths in least recently used order.<br />
+     * Key = (start, end)
+     */
+    private final LinkedHashMap<Long, CachedPath> paths;
+
+    /**
+     * Cached paths by every tile they lead through.<br />
+     * Key = (tile on the path, end)
+     */
+    private final HashMap<Long, CachedPath> suffixes;
+
+    /**
+     * Version in which each tile was found to be water, 0 = not water
+     */
+    private final int[] waterVersions;
+    private int waterVersion;
+
+    private final IntList path;
+
+    /**
+     * Result of the last search: steps of the path found and the first of
+     * them belonging to the result
+     */
+    private DirectionPath directions;
+    private int directionsOffset;
+
+    private int expandedCounter;
+    private int hits;
+    private int misses;
+
+    /**
+     * A path with its start and end tile.
+     */
+    private static class CachedPath
+    {
+	private final int start;
+	private final int end;
+	private final DirectionPath steps;
+
+	/**
+	 * Water version up to which no tile of the path was water
+	 */
+	private int checkedVersion;
+
+	private CachedPath(int start, int end, DirectionPath steps, int waterVersion)
+	{
+	    this.start = start;
+	    this.end = end;
+	    this.steps = steps;
+	    checkedVersion = waterVersion;
+	}
+    }
+
+    /**
+     * @param pathFinder
+     *            searches the paths which are not cached yet
+     * @param capacity
+     *            maximum number of cached paths
+     */
+    public RouteCache(Ants game, IPathFinder pathFinder, int capacity)
+    {
+	this.game = game;
+	this.pathFinder = pathFinder;
+	this.capacity = capacity;
+	cells = game.getRows() * game.getCols();
+
+	paths = new LinkedHashMap<Long, CachedPath>(16, 0.75f, true);
+	suffixes = new HashMap<Long, CachedPath>();
+	waterVersions = new int[(int) cells];
+	waterVersion = 0;
+	path = new IntList();
+    }
+
+    public boolean findPath(int start, int end)
+    {
+	CachedPath cached = suffixes.get(getKey(start, end));
+	if (cached != null && isValid(cached))
+	{
+	    hits++;
+	    expandedCounter = 0;
+
+	    // mark as recently used
+	    paths.get(getKey(cached.start, end));
+
+	    // skip the steps before start
+	    directions = cached.steps;
+	    directionsOffset = 0;
+	    int index = cached.start;
+	    while (index != start)
+		index = game.getNeighbour(index, directions.get(directionsOffset++));
+
+	    path.clear();
+	    for (int i = directionsOffset; i < directions.size(); i++)
+	    {
+		index = game.getNeighbour(index, directions.get(i));
+		path.add(index);
+	    }
+	    return true;
+	}
+
+	misses++;
+	boolean ret = pathFinder.findPath(start, end);
+	expandedCounter = pathFinder.getExpandedCounter();
+	path.clear();
+	if (ret)
+	{
+	    IntList found = pathFinder.getPath();
+	    for (int i = 0; i < found.size(); i++)
+		path.add(found.get(i));
+	    directions = pathFinder.getDirectionPath();
+	    directionsOffset = 0;
+	    if (start != end)
+		put(new CachedPath(start, end, directions, waterVersion));
+	}
+	return ret;
+    }
+
+    public IntList getPath()
+    {
+	return path;
+    }
+
+    /**
+     * Returns the path found by the last successful search as a view of the
+     * cached steps.
+     */
+    public DirectionPath getDirectionPath()
+    {
+	return directions.subPath(directionsOffset, directions.size());
+    }
+
+    public int getExpandedCounter()
+    {
+	return expandedCounter;
+    }
+
+    /**
+     * Check how many searches were answered from the cache.
+     */
+    public int getHits()
+    {
+	return hits;
+    }
+
+    /**
+     * Check how many searches had to be passed to the path finder.
+     */
+    public int getMisses()
+    {
+	return misses;
+    }
+
+    /**
+     * Invalidates all cached paths leading through a tile. The paths are
+     * dropped when they are looked up next time.
+     * 
+     * @param index
+     *            location index of a tile which turned out to be water
+     */
+    public void markWater(int index)
+    {
+	waterVersions[index] = ++waterVersion;
+    }
+
+    private long getKey(int tile, int end)
+    {
+	return tile * cells + end;
+    }
+
+    /**
+     * Checks the tiles of a path if water has been found since the last check
+     * and drops the path if it leads through water.
+     */
+    private boolean isValid(CachedPath cached)
+    {
+	if (cached.checkedVersion == waterVersion)
+	    return true;
+
+	int index = cached.start;
+	for (int i = 0; i <= cached.steps.size(); i++)
+	{
+	    if (waterVersions[index] > cached.checkedVersion)
+	    {
+		remove(cached);
+		return false;
+	    }
+	    if (i < cached.steps.size())
+		index = game.getNeighbour(index, cached.steps.get(i));
+	}
+	cached.checkedVersion = waterVersion;
+	return true;
+    }
+
+    private void put(CachedPath cached)
+    {
+	CachedPath old = paths.put(getKey(cached.start, cached.end), cached);
+	if (old != null)
+	    removeSuffixes(old);
+	int index = cached.start;
+	for (int i = 0; i < cached.steps.size(); i++)
+	{
+	    suffixes.put(getKey(index, cached.end), cached);
+	    index = game.getNeighbour(index, cached.steps.get(i));
+	}
+
+	if (paths.size() > capacity)
+	{
+	    Iterator<CachedPath> eldest = paths.values().iterator();
+	    CachedPath evicted = eldest.next();
+	    eldest.remove();
+	    removeSuffixes(evicted);
+	}
+    }
+
+    private void remove(CachedPath cached)
+    {
+	paths.remove(getKey(cached.start, cached.end), cached);
+	removeSuffixes(cached);
+    }
+
+    /**
+     * Removes the tiles of a path from the suffix index, unless a newer path
+     * has taken them over.
+     */
+    private void removeSuffixes(CachedPath cached)
+    {
+	int index = cached.start;
+	for (int i = 0; i < cached.steps.size(); i++)
+	{
+	    long key = getKey(index, cached.end);
+	    if (suffixes.get(key) == cached)
+		suffixes.remove(key);
+	    index = game.getNeighbour(index, cached.steps.get(i));
+	}
+    }
+}
@@ -0,0 +1,88 @@
+import java.util.Arrays;
+
+/**
+ * Bookkeeping shared by the searches on the game map. The per-state arrays of
+ * a search are only valid for the states stamped with the current
+ * generation, so a new search invalidates them in constant time instead of
+ * clearing them. The searches estimate distances by the Manhattan distance
+ * on the wrapped map and stop once they have used up their part of the turn
+ * time.
+ */
+public class SearchSpace
+{
+    /**
+     * Searches are stopped as soon as the remaining turn time drops to this
+     * percentage of the turn time. The rest is left for the other work of the
+     * turn.
+     */
+    private static final int MIN_TIME_REMAINING_PERCENT = 90;
+
+    private final int rows;
+    private final int cols;
+    private final int[] stamps;
+    private int generation;
+
+    /**
+     * @param size
+     *            number of states, e.g. the number of tiles
+     */
+    public SearchSpace(Ants game, int size)
+    {
+	rows = game.getRows();
+	cols = game.getCols();
+	stamps = new int[size];
+	generation = 0;
+    }
+
+    /**
+     * Checks if the searches have to stop to finish the turn in time.
+     */
+    public static boolean isOutOfTime(Ants game)
+    {
+	return game.getTimeRemaining() * 100L <= (long) game.getTurnTime() * MIN_TIME_REMAINING_PERCENT;
+    }
+
+    /**
+     * Forgets all states reached so far.
+     */
+    public void nextGeneration()
+    {
+	generation++;
+	if (generation == Integer.MAX_VALUE)
+	{
+	    Arrays.fill(stamps, 0);
+	    generation = 1;
+	}
+    }
+
+    /**
+     * Checks if a state has been reached since the last
+     * <code>nextGeneration()</code>.
+     */
+    public boolean isReached(int state)
+    {
+	return stamps[state] == generation;
+    }
+
+    public void reach(int state)
+    {
+	stamps[state] = generation;
+    }
+
+    /**
+     * Calculates the Manhattan distance on the wrapped map.
+     *
+     * @param src
+     *            location index
+     * @param dest
+     *            location index
+     */
+    public int getDistance(int src, int dest)
+    {
+	int rowDelta = Math.abs(src / cols - dest / cols);
+	int colDelta = Math.abs(src % cols - dest % cols);
+	rowDelta = Math.min(rowDelta, rows - rowDelta);
+	colDelta = Math.min(colDelta, cols - colDelta);
+	return rowDelta + colDelta;
+    }
+}
@@ -1,5 +1,4 @@
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class Util
@@ -14,22 +13,6 @@ public class Util
 	return "from " + tilePositionAsString(tile1) + " to " + tilePositionAsString(tile2);
     }
 
-    public static String printPath(Ants game, Tile start, List<Tile> path)
-    {
-	String ret = "";
-
-	Tile tile = start;
-	for (Tile nextTile : path)
-	{
-	    Aim direction = game.getDirections(tile, nextTile).get(0);
-	    ret += (direction.name() + ",");
-	    tile = nextTile;
-	}
-
-	ret.substring(0, ret.length() - 1);
-	return ret;
-    }
-
     public static Tile getKeybyValue(Map<Tile, Tile> map, Tile value)
     {
 	Tile ret = null;